@@ -0,0 +1,66 @@
+package com.dca.checkers.benchmark;
+
+import com.dca.checkers.model.Board;
+import com.dca.checkers.model.GameState;
+import com.dca.checkers.model.MoveList;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of the {@link Board} operations used at every node of a search.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class BoardBenchmark {
+	
+	@Param({"opening", "captures", "middleGame", "middleGameCheckers", "endgame", "endgameKings"})
+	public String position;
+	
+	private Board board;
+	
+	private boolean isBlack;
+	
+	private final MoveList moves = new MoveList();
+	
+	@Setup
+	public void setup() {
+		GameState state = Positions.get(position);
+		board = state.getBoard();
+		isBlack = state.isP1Turn();
+	}
+	
+	@Benchmark
+	public Board copy() {
+		return board.copy();
+	}
+	
+	/**
+	 * Generate the legal moves of the side to move, without the cache of {@code GameState}.
+	 */
+	@Benchmark
+	public MoveList generateMoves() {
+		moves.clear();
+		board.generateMoves(isBlack, moves);
+		return moves;
+	}
+	
+	@Benchmark
+	public boolean hasAnyMove() {
+		return board.hasAnyMove(isBlack);
+	}
+}
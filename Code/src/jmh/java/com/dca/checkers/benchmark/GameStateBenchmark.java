@@ -0,0 +1,145 @@
+package com.dca.checkers.benchmark;
+
+import com.dca.checkers.model.GameState;
+import com.dca.checkers.model.Move;
+import com.dca.checkers.model.MoveList;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of the {@link GameState} operations used by the players and the
+ * user interface. The state is never changed by a benchmark: moves are made on
+ * a copy (see {@link #copy()} for its cost) or undone.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class GameStateBenchmark {
+	
+	@Param({"opening", "captures", "middleGame", "middleGameCheckers", "endgame", "endgameKings"})
+	public String position;
+	
+	private GameState state;
+	
+	/** The state as a string, for the round-trips. */
+	private String encoded;
+	
+	/** A state the round-trips parse into. */
+	private final GameState parsed = new GameState();
+	
+	/** The first legal move, as played by the user interface. */
+	private Move firstMove;
+	
+	/** The first legal move, encoded. */
+	private int firstEncodedMove;
+	
+	/** The tiles captured by the first legal move. */
+	private int firstCaptured;
+	
+	private final MoveList moves = new MoveList();
+	
+	@Setup
+	public void setup() {
+		state = Positions.get(position);
+		encoded = state.getGameState();
+		firstMove = state.getAllMoves().get(0);
+		state.generateMoves(moves);
+		firstEncodedMove = moves.get(0);
+		firstCaptured = moves.getCaptured(0);
+	}
+	
+	@Benchmark
+	public GameState copy() {
+		return state.copy();
+	}
+	
+	/**
+	 * Get the moves of a state as the user interface does, for the first time:
+	 * the cache of legal moves is invalidated before each call.
+	 */
+	@Benchmark
+	public List<Move> getAllMoves() {
+		state.setP1Turn(state.isP1Turn());
+		return state.getAllMoves();
+	}
+	
+	/**
+	 * Get the moves of a state already asked for, from the cache of legal moves.
+	 */
+	@Benchmark
+	public List<Move> getAllMovesCached() {
+		return state.getAllMoves();
+	}
+	
+	/**
+	 * Generate the moves of a state as the searches do, for the first time:
+	 * the cache of legal moves is invalidated before each call.
+	 */
+	@Benchmark
+	public MoveList generateMoves() {
+		state.setP1Turn(state.isP1Turn());
+		state.generateMoves(moves);
+		return moves;
+	}
+	
+	/**
+	 * Play a single step on a copy of the state, as the user interface does.
+	 */
+	@Benchmark
+	public GameState move() {
+		GameState g = state.copy();
+		g.move(firstMove.getStartIndex(), firstMove.getEndIndex());
+		return g;
+	}
+	
+	/**
+	 * Play a whole turn and take it back, as the searches do.
+	 */
+	@Benchmark
+	public long applyUndo() {
+		int undoToken = state.apply(firstEncodedMove, firstCaptured);
+		long key = state.getKey();
+		state.undo(undoToken);
+		return key;
+	}
+	
+	@Benchmark
+	public double value() {
+		return state.value(state.isP1Turn());
+	}
+	
+	@Benchmark
+	public String getGameState() {
+		return state.getGameState();
+	}
+	
+	/**
+	 * Save the state to a string and parse it back.
+	 */
+	@Benchmark
+	public GameState gameStateRoundTrip() {
+		parsed.setGameState(state.getGameState());
+		return parsed;
+	}
+	
+	@Benchmark
+	public GameState setGameState() {
+		parsed.setGameState(encoded);
+		return parsed;
+	}
+}
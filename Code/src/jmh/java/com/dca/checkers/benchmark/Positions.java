@@ -0,0 +1,50 @@
+package com.dca.checkers.benchmark;
+
+import com.dca.checkers.model.GameState;
+
+/**
+ * The {@code Positions} class holds the corpus of representative positions
+ * the benchmarks run on, as strings parsed by {@link GameState#setGameState(String)}.
+ * Benchmarks select them by name through a {@code position} parameter.
+ */
+final class Positions {
+	
+	/** The initial position. */
+	static final String OPENING = "666666666666000000004444444444440-1";
+	
+	/** An opening position where both sides can capture. */
+	static final String CAPTURES = "666600060664660000004000444644440-1";
+	
+	/** A middle game position with a king for each side. */
+	static final String MIDDLE_GAME = "066605060000000060600000444044440-1";
+	
+	/** A middle game position without kings. */
+	static final String MIDDLE_GAME_CHECKERS = "600066000600600004000440004600000-1";
+	
+	/** An endgame position with two black kings against white checkers. */
+	static final String ENDGAME = "600060006046000004000440000000771-1";
+	
+	/** An endgame position where only a few pieces are left. */
+	static final String ENDGAME_KINGS = "600660006000000000004600006670000-1";
+	
+	private Positions() {}
+	
+	/**
+	 * Get a position of the corpus by name.
+	 *
+	 * @param name the name of the position, as used in the {@code position} parameters.
+	 * @return a new game state in that position.
+	 * @throws IllegalArgumentException if there is no position with that name.
+	 */
+	static GameState get(String name) {
+		switch (name) {
+			case "opening": return new GameState(OPENING);
+			case "captures": return new GameState(CAPTURES);
+			case "middleGame": return new GameState(MIDDLE_GAME);
+			case "middleGameCheckers": return new GameState(MIDDLE_GAME_CHECKERS);
+			case "endgame": return new GameState(ENDGAME);
+			case "endgameKings": return new GameState(ENDGAME_KINGS);
+			default: throw new IllegalArgumentException("Unknown position: " + name);
+		}
+	}
+}
@@ -0,0 +1,75 @@
+package com.dca.checkers.benchmark;
+
+import com.dca.checkers.ai.AIAlphaBeta;
+import com.dca.checkers.model.GameState;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of {@link AIAlphaBeta} searches to a fixed depth on a single
+ * thread. Every search starts from an empty transposition table, has no
+ * time limit and breaks ties among moves with the same seed, so it always
+ * explores the same tree.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(2)
+public class SearchBenchmark {
+	
+	/** Size of the transposition table of the searches in megabytes. */
+	private static final int TABLE_SIZE_MB = 4;
+	
+	/** Time limit of the searches in milliseconds, long enough to never be reached. */
+	private static final long NO_TIME_LIMIT = TimeUnit.HOURS.toMillis(1);
+	
+	/** Seed of the shuffling of the moves of the searches. */
+	private static final long SEED = 42;
+	
+	@Param({"opening", "captures", "middleGame", "middleGameCheckers", "endgame", "endgameKings"})
+	public String position;
+	
+	@Param({"4", "6", "8"})
+	public int depth;
+	
+	private GameState state;
+	
+	private AIAlphaBeta ai;
+	
+	/** The state the search plays its move on. */
+	private GameState searched;
+	
+	@Setup
+	public void setup() {
+		state = Positions.get(position);
+	}
+	
+	@Setup(Level.Invocation)
+	public void prepareSearch() {
+		ai = new AIAlphaBeta(TABLE_SIZE_MB, 1, SEED);
+		ai.setMaxSearchDepth(depth);
+		ai.setTimeBudget(NO_TIME_LIMIT);
+		ai.setHardDeadline(NO_TIME_LIMIT);
+		searched = state.copy();
+	}
+	
+	@Benchmark
+	public GameState alphaBeta() {
+		ai.updateGame(searched);
+		return searched;
+	}
+}
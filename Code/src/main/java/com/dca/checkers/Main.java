@@ -1,14 +1,40 @@
 
 package com.dca.checkers;
 
+import com.dca.checkers.tools.Perft;
+import com.dca.checkers.tools.Simulate;
 import com.dca.checkers.ui.CheckersWindow;
 
 import javax.swing.*;
+import java.util.Arrays;
 
 public class Main {
 
 	public static void main(String[] args) {
 		
+		//Command line tools never load the user interface
+		if (args.length > 0) {
+			String[] toolArgs = Arrays.copyOfRange(args, 1, args.length);
+			switch (args[0]) {
+				case "simulate":
+					Simulate.main(toolArgs);
+					return;
+				case "perft":
+					Perft.main(toolArgs);
+					return;
+				default:
+					System.err.println("Usage: Main [simulate|perft] [options]");
+					System.exit(2);
+			}
+		}
+		openWindow();
+	}
+	
+	/**
+	 * Open the window of the game.
+	 */
+	private static void openWindow() {
+		
 		//Set the look and feel to the OS look and feel
 		try {
 			UIManager.setLookAndFeel(
@@ -2,26 +2,42 @@ package com.dca.checkers.ai;
 
 import com.dca.checkers.model.Board;
 import com.dca.checkers.model.GameState;
-import com.dca.checkers.model.Move;
+import com.dca.checkers.model.MoveList;
 import com.dca.checkers.model.Player;
+import com.dca.checkers.model.SearchStats;
+import com.dca.checkers.monitor.EngineMonitor;
+import com.dca.checkers.monitor.SearchEvent;
 
-import java.util.Collections;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
 /**
  * The {@code AIAlphaBeta} class represents a AI player that updates
  * the board based one alpha beta algorithm.
+ * <p>
+ * The search can run on several threads (Lazy SMP): the calling thread and
+ * a number of helpers search the same root at staggered depths, each with
+ * its own game state, move ordering and principal variation, and they share
+ * only the transposition table. Helpers fill the table with results that
+ * make the iterations of the calling thread faster; the move played is the
+ * one found by the calling thread.
  */
 public class AIAlphaBeta implements Player {
 	
 	/**
-	 * Number of expanded nodes
+	 * Flag that tells if the AI is playing the black checkers (player 1).
 	 */
-	private static int expandedNodes = 0;
+	private boolean isBlack;
 	/**
-	 * Depth of the tree to build.
+	 * Maximum depth of the tree to build.
 	 */
-	private boolean isBlack;
+	private int maxSearchDepth = MAX_SEARCH_DEPTH;
 	/**
 	 * Flag that tells if the move has been performed.
 	 */
@@ -32,12 +48,128 @@ public class AIAlphaBeta implements Player {
 	private int limitValue = -1000;
 	
 	/**
-	 * limit size for queue
+	 * Limit of expanded nodes for a move and a thread (no limit by default: the time budget decides).
+	 */
+	private int limitSize = Integer.MAX_VALUE;
+	
+	/** Upper bound of the depth reachable by the iterative deepening. */
+	public static final int MAX_SEARCH_DEPTH = 64;
+	
+	/** Default time budget for a move, in milliseconds. */
+	public static final long DEFAULT_TIME_BUDGET = 500;
+	
+	/** Default hard deadline for a move, in milliseconds. */
+	public static final long DEFAULT_HARD_DEADLINE = 1000;
+	
+	/** Seconds an idle helper thread is kept alive waiting for the next move. */
+	private static final long HELPER_KEEP_ALIVE = 30;
+	
+	/**
+	 * Time budget for a move in milliseconds: no new iteration of the
+	 * iterative deepening is started once it is over.
+	 */
+	private long timeBudget = DEFAULT_TIME_BUDGET;
+	
+	/**
+	 * Hard deadline for a move in milliseconds: the iteration in progress is
+	 * abandoned when it is over, and the move of the last completed one is played.
+	 */
+	private long hardDeadline = DEFAULT_HARD_DEADLINE;
+	
+	/**
+	 * Bookkeeping of the last updateGame execution. Its search is stopped by
+	 * the deadline, by the node limit or, for the helpers, because the calling
+	 * thread has its move.
 	 */
-	private int limitSize = 100000;
+	private volatile SearchContext lastSearch;
 	
 	/** The max depth reached with last updateGame execution */
-	public int maxDepthReached;
+	private volatile int maxDepthReached;
+	
+	/** The statistics of the last updateGame execution. */
+	private volatile SearchStats lastStats = SearchStats.EMPTY;
+	
+	/** Collects the searches of all the instances and holds the settings changed through JMX. */
+	private final EngineMonitor monitor = EngineMonitor.of(AIAlphaBeta.class);
+	
+	/** Default size of the transposition table, in megabytes. */
+	public static final int DEFAULT_TABLE_SIZE_MB = 16;
+	
+	/**
+	 * Results of the positions already searched, shared by all the threads.
+	 * Scores are stored from the point of view of the black player and relative
+	 * to their node, so that the table can be kept between moves whatever
+	 * colour this AI is playing (see {@link #toTableScore(double, int)}).
+	 */
+	private final TranspositionTable table;
+	
+	/** Number of threads searching a move, the calling one included. */
+	private int threads = Runtime.getRuntime().availableProcessors();
+	
+	/** The searchers: the first one runs on the calling thread, the others are helpers. */
+	private Searcher[] searchers = new Searcher[0];
+	
+	/** Threads running the helpers, created on first use. */
+	private ThreadPoolExecutor helperPool;
+	
+	/** Source of the seeds of the searchers, null for unseeded searchers. */
+	private final Random seeds;
+	
+	public AIAlphaBeta() {
+		this(DEFAULT_TABLE_SIZE_MB);
+	}
+	
+	/**
+	 * Creates an alpha beta AI with a transposition table of the specified size.
+	 *
+	 * @param tableSizeMb the size of the transposition table in megabytes.
+	 */
+	public AIAlphaBeta(int tableSizeMb) {
+		this(tableSizeMb, (Random) null);
+	}
+	
+	/**
+	 * Creates an alpha beta AI whose choices among moves of equal value are
+	 * reproducible: each searcher gets a seed derived from the specified one.
+	 * The moves played are reproducible only by a single thread whose search
+	 * is bounded by the depth or the node limit rather than by the time budget.
+	 *
+	 * @param seed the seed of the sources of randomness.
+	 */
+	public AIAlphaBeta(long seed) {
+		this(DEFAULT_TABLE_SIZE_MB, new Random(seed));
+	}
+	
+	/**
+	 * Creates an alpha beta AI with a transposition table of the specified size,
+	 * searching on the specified number of threads.
+	 *
+	 * @param tableSizeMb the size of the transposition table in megabytes.
+	 * @param threads     the number of threads, the calling one included.
+	 */
+	public AIAlphaBeta(int tableSizeMb, int threads) {
+		this(tableSizeMb);
+		setThreads(threads);
+	}
+	
+	/**
+	 * Creates a seeded alpha beta AI (see {@link #AIAlphaBeta(long)}) with a
+	 * transposition table of the specified size, searching on the specified
+	 * number of threads.
+	 *
+	 * @param tableSizeMb the size of the transposition table in megabytes.
+	 * @param threads     the number of threads, the calling one included.
+	 * @param seed        the seed of the sources of randomness.
+	 */
+	public AIAlphaBeta(int tableSizeMb, int threads, long seed) {
+		this(tableSizeMb, new Random(seed));
+		setThreads(threads);
+	}
+	
+	private AIAlphaBeta(int tableSizeMb, Random seeds) {
+		this.table = new TranspositionTable(tableSizeMb);
+		this.seeds = seeds;
+	}
 	
 	@Override
 	public int getLastMaxDepthReached() {
@@ -53,20 +185,201 @@ public class AIAlphaBeta implements Player {
 	synchronized public void updateGame(GameState gameState) {
 		moveDone = false;
 		maxDepthReached = -1;
+		lastSearch = null;
+		lastStats = SearchStats.EMPTY;
 		// Nothing to do
 		if (gameState == null || gameState.isGameOver()) {
 			moveDone = true;
 			return;
 		}
 		isBlack = gameState.isP1Turn();
-		expandedNodes = 0;
-		//Select best move
-		AlphaBetaResult bestResult = alphaBeta(gameState.copy(), null, Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY, true, 0);
+		SearchEvent event = new SearchEvent();
+		event.begin();
+		long startTime = System.nanoTime();
+		long timeBudget = monitor.timeBudget(this.timeBudget);
+		long budgetTime = startTime + timeBudget * 1000000L;
+		long stopTime = startTime + Math.max(timeBudget, hardDeadline) * 1000000L;
+		SearchContext search = new SearchContext(monitor.nodeLimit(limitSize), stopTime);
+		prepareSearchers();
+		
+		//A forced move doesn't need a search
+		Searcher main = searchers[0];
+		main.reset(gameState, search, false);
+		MoveList rootMoves = main.getMoveList(0);
+		main.state.generateMoves(rootMoves);
+		int bestMove = rootMoves.get(0);
+		int bestCaptured = rootMoves.getCaptured(0);
+		
+		if (rootMoves.size() > 1) {
+			//Start the helpers, odd ones one ply deeper
+			List<Future<?>> helpers = new ArrayList<>();
+			for (int i = 1; i < searchers.length; i++) {
+				Searcher helper = searchers[i];
+				helper.reset(gameState, search, true);
+				int firstDepth = 1 + i % 2;
+				helpers.add(helperPool.submit(() -> helper.iterate(firstDepth, Long.MAX_VALUE)));
+			}
+			
+			//Search on this thread until the time budget is over, then stop the helpers
+			int result = main.iterate(1, budgetTime);
+			if (result >= 0) {
+				bestMove = result;
+				bestCaptured = main.bestCaptured;
+			}
+			search.stop();
+			for (Future<?> helper : helpers) {
+				try {
+					helper.get();
+				} catch (InterruptedException | ExecutionException e) {
+					System.err.println("An error occurred in a search helper.\n");
+					e.printStackTrace();
+				}
+			}
+			search.setCompletedDepth(main.completedDepth);
+			maxDepthReached = search.getMaxDepthReached();
+		}
+		lastSearch = search;
+		lastStats = search.toStats(System.nanoTime() - startTime);
+		monitor.record(lastStats);
+		event.commit(this, lastStats, bestMove);
+		
 		//Apply best move
-		gameState.move(bestResult.move.getStartIndex(), bestResult.move.getEndIndex());
+		gameState.playMove(bestMove, bestCaptured);
 		moveDone = true;
 	}
 	
+	/**
+	 * Create the searchers and the helper threads needed by the current number of threads.
+	 */
+	private void prepareSearchers() {
+		if (searchers.length != threads) {
+			Searcher[] resized = new Searcher[threads];
+			for (int i = 0; i < threads; i++) {
+				resized[i] = i < searchers.length ? searchers[i]
+						: new Searcher(seeds == null ? new Random() : new Random(seeds.nextLong()));
+			}
+			searchers = resized;
+		}
+		int helpersNeeded = threads - 1;
+		if (helperPool != null && helperPool.getMaximumPoolSize() != helpersNeeded) {
+			helperPool.shutdown();
+			helperPool = null;
+		}
+		if (helpersNeeded > 0 && helperPool == null) {
+			helperPool = new ThreadPoolExecutor(helpersNeeded, helpersNeeded, HELPER_KEEP_ALIVE, TimeUnit.SECONDS,
+					new LinkedBlockingQueue<>(), r -> {
+				Thread t = new Thread(r, "AIAlphaBeta-helper");
+				t.setDaemon(true);
+				return t;
+			});
+			helperPool.allowCoreThreadTimeOut(true);
+		}
+	}
+	
+	/**
+	 * Get the depth of the last iteration completed by the last updateGame execution.
+	 *
+	 * @return the completed depth, 0 if the move was forced.
+	 */
+	public int getLastCompletedDepth() {
+		SearchContext search = lastSearch;
+		return search == null ? 0 : search.getCompletedDepth();
+	}
+	
+	/**
+	 * Get the number of nodes expanded by all the threads in the last updateGame execution.
+	 *
+	 * @return the number of expanded nodes.
+	 */
+	@Override
+	public long getLastExpandedNodes() {
+		SearchContext search = lastSearch;
+		return search == null ? 0 : search.getExpandedNodes();
+	}
+	
+	@Override
+	public SearchStats getLastSearchStats() {
+		return lastStats;
+	}
+	
+	/**
+	 * Set the number of threads searching a move. With one thread there are
+	 * no helpers and the search runs entirely on the calling thread.
+	 *
+	 * @param threads the number of threads, the calling one included (at least 1).
+	 */
+	synchronized public void setThreads(int threads) {
+		this.threads = Math.max(1, threads);
+	}
+	
+	/**
+	 * Get the number of threads searching a move.
+	 *
+	 * @return the number of threads, the calling one included.
+	 */
+	public int getThreads() {
+		return threads;
+	}
+	
+	/**
+	 * Set the time budget for a move: once it is over, no deeper iteration is started.
+	 *
+	 * @param millis the time budget in milliseconds.
+	 */
+	public void setTimeBudget(long millis) {
+		this.timeBudget = Math.max(0, millis);
+	}
+	
+	/**
+	 * Get the time budget for a move.
+	 *
+	 * @return the time budget in milliseconds.
+	 */
+	public long getTimeBudget() {
+		return timeBudget;
+	}
+	
+	/**
+	 * Set the hard deadline for a move: once it is over, the iteration in progress
+	 * is abandoned. It is never shorter than the time budget.
+	 *
+	 * @param millis the hard deadline in milliseconds.
+	 */
+	public void setHardDeadline(long millis) {
+		this.hardDeadline = Math.max(0, millis);
+	}
+	
+	/**
+	 * Get the hard deadline for a move.
+	 *
+	 * @return the hard deadline in milliseconds.
+	 */
+	public long getHardDeadline() {
+		return hardDeadline;
+	}
+	
+	/**
+	 * Set the maximum depth reachable by the iterative deepening.
+	 *
+	 * @param depth the maximum depth (from 1 to {@link #MAX_SEARCH_DEPTH}).
+	 */
+	public void setMaxSearchDepth(int depth) {
+		this.maxSearchDepth = Math.max(1, Math.min(depth, MAX_SEARCH_DEPTH));
+	}
+	
+	/**
+	 * Set the limit of nodes expanded for a move by each thread.
+	 *
+	 * @param nodeLimit the number of nodes (at least 1), {@link Integer#MAX_VALUE} for no limit.
+	 */
+	public void setNodeLimit(int nodeLimit) {
+		this.limitSize = Math.max(1, nodeLimit);
+	}
+	
+	public int getNodeLimit() {
+		return limitSize;
+	}
+	
 	@Override
 	public boolean hasSkipped() {
 		return false;
@@ -78,98 +391,68 @@ public class AIAlphaBeta implements Player {
 	}
 	
 	/**
-	 * Execute alpha beta algorithm in order to find the best move.
+	 * Convert the value of a node to the score stored in the transposition
+	 * table: from the point of view of the black player, and without the
+	 * penalty of the ply of the node, so that the score can be reused at any
+	 * ply and in the searches of the next moves.
 	 *
-	 * @param g           the game state to evaluate.
-	 * @param m           the last move performed to reach game state g.
-	 * @param alpha       the current best outcome possible for maximizing player.
-	 * @param beta        the current best outcome possible for minimizing player.
-	 * @param isMaxPlayer flag that tells if the current player is max (true) or min (false)
-	 * @param depth       the depth of the recursion.
-	 * @return the result of min max algorithm.
+	 * @param value the value of the node, from the point of view of this AI.
+	 * @param ply   the distance of the node from the root.
+	 * @return the score to store.
 	 */
-	private AlphaBetaResult alphaBeta(GameState g, Move m, double alpha, double beta, boolean isMaxPlayer, int depth) {
-		double val = eval(g.getBoard(), isBlack);
-		maxDepthReached = Math.max(depth, maxDepthReached);
-		if (g.isGameOver()) return new AlphaBetaResult(m, val);
-		
-		val -= (double) depth / 1000;
-		if (expandedNodes >= limitSize || val < limitValue) return new AlphaBetaResult(m, val);
-		
-		double maxVal;
-		double minVal;
-		Move bestMove = null;
-		double bestValue = 0;
-		
-		expandedNodes++;
-		
-		if (isMaxPlayer) {
-			maxVal = Integer.MIN_VALUE;
-			//Get the available moves
-			List<Move> moves = g.getAllMoves();
-			Collections.shuffle(moves);
-			//Evaluate all games state reachable with each possible move
-			for (Move possibleMove : moves) {
-				GameState childState = g.copy();
-				childState.move(possibleMove.getStartIndex(), possibleMove.getEndIndex());
-				AlphaBetaResult resChild = alphaBeta(childState, possibleMove, alpha, beta, false, depth - 1);
-				alpha = Math.max(alpha, resChild.value);
-				if (beta <= alpha) break;
-				if (resChild.value > maxVal) {
-					maxVal = resChild.value;
-					bestMove = possibleMove;
-					bestValue = resChild.value;
-				}
-			}
-			return new AlphaBetaResult(bestMove, bestValue);
-			
-		} else {//Min player
-			minVal = Integer.MAX_VALUE;
-			//Get the available moves
-			List<Move> moves = g.getAllMoves();
-			//Evaluate all games state reachable with each possible move
-			for (Move possibleMove : moves) {
-				GameState childState = g.copy();
-				childState.move(possibleMove.getStartIndex(), possibleMove.getEndIndex());
-				AlphaBetaResult resChild = alphaBeta(childState, possibleMove, alpha, beta, true, depth - 1);
-				beta = Math.min(beta, resChild.value);
-				if (beta <= alpha) break;
-				if (resChild.value < minVal) {
-					minVal = resChild.value;
-					bestMove = possibleMove;
-					bestValue = resChild.value;
-				}
-			}
-			return new AlphaBetaResult(bestMove, bestValue);
-		}
-		
-		
+	private double toTableScore(double value, int ply) {
+		double score = value + (double) ply / 1000;
+		return isBlack ? score : -score;
+	}
+	
+	/**
+	 * Convert a score stored in the transposition table to the value of a
+	 * node (see {@link #toTableScore(double, int)}).
+	 *
+	 * @param score the stored score.
+	 * @param ply   the distance of the node from the root.
+	 * @return the value of the node, from the point of view of this AI.
+	 */
+	private double fromTableScore(double score, int ply) {
+		return (isBlack ? score : -score) - (double) ply / 1000;
+	}
+	
+	/**
+	 * Convert a bound type between the point of view of this AI and the one
+	 * of the black player used in the transposition table (in both directions).
+	 *
+	 * @param bound the bound type to convert.
+	 * @return the converted bound type.
+	 */
+	private int asBlackBound(int bound) {
+		if (isBlack || bound == TranspositionTable.EXACT) return bound;
+		return bound == TranspositionTable.LOWER ? TranspositionTable.UPPER : TranspositionTable.LOWER;
 	}
 	
 	/**
 	 * Counts the value of player's pieces and subtracts from it
 	 * the value of opponent’s pieces.
 	 *
-	 * @param b         the board state to use for the evaluation.
+	 * @param g         the game state to evaluate.
 	 * @param evalForP1 flag that tells if current game state must be evaluated for player 1 (true) or player 2 (false).
 	 * @return current state game value for player 1 or player 2.
 	 */
-	private double eval(Board b, boolean evalForP1) {
+	private double eval(GameState g, boolean evalForP1) {
 		double value = 0;
 		final double W_CHECKER = 1;
 		final double W_KING = 2;
 		
 		if (evalForP1) {
 			//Number of pieces
-			value += b.find(Board.BLACK_CHECKER).size() * W_CHECKER;
-			value += b.find(Board.BLACK_KING).size() * W_KING;
-			value -= b.find(Board.WHITE_CHECKER).size() * W_CHECKER;
-			value -= b.find(Board.WHITE_KING).size() * W_KING;
+			value += g.count(Board.BLACK_CHECKER) * W_CHECKER;
+			value += g.count(Board.BLACK_KING) * W_KING;
+			value -= g.count(Board.WHITE_CHECKER) * W_CHECKER;
+			value -= g.count(Board.WHITE_KING) * W_KING;
 		} else {//Eval for P2
-			value += b.find(Board.WHITE_CHECKER).size() * W_CHECKER;
-			value += b.find(Board.WHITE_KING).size() * W_KING;
-			value -= b.find(Board.BLACK_CHECKER).size() * W_CHECKER;
-			value -= b.find(Board.BLACK_KING).size() * W_KING;
+			value += g.count(Board.WHITE_CHECKER) * W_CHECKER;
+			value += g.count(Board.WHITE_KING) * W_KING;
+			value -= g.count(Board.BLACK_CHECKER) * W_CHECKER;
+			value -= g.count(Board.BLACK_KING) * W_KING;
 		}
 		
 		return value;
@@ -182,14 +465,281 @@ public class AIAlphaBeta implements Player {
 	
 	private class AlphaBetaResult {
 		
-		Move move;
+		int move;
 		double value;
 		
-		public AlphaBetaResult(Move m, double v) {
+		public AlphaBetaResult(int m, double v) {
 			move = m;
 			value = v;
 		}
 		
 	}
 	
+	/**
+	 * The {@code Searcher} class holds everything a single thread needs to
+	 * search a move: its own copy of the game state, move buffers, principal
+	 * variation, move ordering and node counters.
+	 */
+	private class Searcher {
+		
+		/** The game state searched, updated applying and undoing moves. */
+		private GameState state;
+		
+		/** The context of the search in progress. */
+		private SearchContext search;
+		
+		/** The counters of this thread in the search in progress. */
+		private SearchContext.Counters counters;
+		
+		/** The depth of the last completed iteration. */
+		private int completedDepth;
+		
+		/** Tiles captured by the best move of the last completed iteration. */
+		private int bestCaptured;
+		
+		/** Tiles captured by the best root move of the iteration in progress. */
+		private int rootCaptured;
+		
+		/** Principal variation of each ply of the iteration in progress (triangular table). */
+		private final int[][] pvTable = new int[MAX_SEARCH_DEPTH + 1][MAX_SEARCH_DEPTH + 1];
+		
+		/** Length of the principal variation of each ply (index of its end). */
+		private final int[] pvLength = new int[MAX_SEARCH_DEPTH + 2];
+		
+		/** Principal variation found by the last completed iteration. */
+		private final int[] prevPv = new int[MAX_SEARCH_DEPTH + 1];
+		
+		/** Number of moves in {@link #prevPv}. */
+		private int prevPvLength;
+		
+		/** Flag that tells if the node being searched is on the previous principal variation. */
+		private boolean followPv;
+		
+		/** Move ordering shared by all the iterations of a search. */
+		private final MoveOrdering ordering = new MoveOrdering(MAX_SEARCH_DEPTH);
+		
+		/** Reusable move buffers, one for each ply of the search. */
+		private MoveList[] moveLists = new MoveList[0];
+		
+		/** Source of randomness used to shuffle the moves of the max player. */
+		private final Random rnd;
+		
+		Searcher(Random rnd) {
+			this.rnd = rnd;
+		}
+		
+		/**
+		 * Prepare a new search of the specified game state.
+		 *
+		 * @param gameState the game state to search, copied.
+		 * @param search    the context of the search.
+		 * @param isHelper  flag that tells if the searcher is a helper, that never stops the search of the others.
+		 */
+		void reset(GameState gameState, SearchContext search, boolean isHelper) {
+			state = gameState.copy();
+			this.search = search;
+			counters = isHelper ? search.newHelperCounters() : search.newCounters();
+			completedDepth = 0;
+			prevPvLength = 0;
+			ordering.clear();
+		}
+		
+		/**
+		 * Search one ply deeper at a time until the search is stopped, the
+		 * maximum depth is reached or, after an iteration, the specified time,
+		 * then publish the counters of this thread.
+		 *
+		 * @param firstDepth the depth of the first iteration.
+		 * @param budgetTime the time (as {@link System#nanoTime()}) after which no iteration is started.
+		 * @return the best move of the last completed iteration (encoded), or -1 if none completed.
+		 */
+		int iterate(int firstDepth, long budgetTime) {
+			int bestMove = -1;
+			for (int depth = firstDepth; depth <= maxSearchDepth; depth++) {
+				followPv = true;
+				AlphaBetaResult result = alphaBeta(state, -1, Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY, true, 0, depth);
+				if (counters.isAborted()) break;
+				bestMove = result.move;
+				bestCaptured = rootCaptured;
+				completedDepth = depth;
+				prevPvLength = pvLength[0];
+				System.arraycopy(pvTable[0], 0, prevPv, 0, prevPvLength);
+				if (System.nanoTime() >= budgetTime) break;
+			}
+			counters.publish();
+			return bestMove;
+		}
+		
+		/**
+		 * Execute alpha beta algorithm in order to find the best move.
+		 * The transposition table is probed before expanding a node: a deep enough
+		 * result ends the search of the node (except at the root) or narrows its
+		 * window, and the stored best move is searched first. Along the principal
+		 * variation of the previous iteration, its move is searched first instead.
+		 * The other moves are sorted by {@link MoveOrdering}, with ties left in
+		 * random order for the max player.
+		 * Leaves with a capture pending are extended by a quiescence search.
+		 * The search is abandoned when the hard deadline or the node limit is
+		 * reached (see {@link SearchContext.Counters#shouldStop()}): the returned value must be ignored.
+		 *
+		 * @param g           the game state to evaluate, children are searched applying and undoing moves on it.
+		 * @param m           the last move performed to reach game state g (encoded, -1 for the root).
+		 * @param alpha       the current best outcome possible for maximizing player.
+		 * @param beta        the current best outcome possible for minimizing player.
+		 * @param isMaxPlayer flag that tells if the current player is max (true) or min (false)
+		 * @param ply         the distance from the root of the search.
+		 * @param depth       the remaining depth of the tree to build.
+		 * @return the result of alpha beta algorithm.
+		 */
+		private AlphaBetaResult alphaBeta(GameState g, int m, double alpha, double beta, boolean isMaxPlayer, int ply, int depth) {
+			pvLength[ply] = ply;
+			double val = eval(g, isBlack);
+			counters.evaluate();
+			counters.reach(ply);
+			if (g.isGameOver()) return new AlphaBetaResult(m, val);
+		
+			val -= (double) ply / 1000;
+			if (depth <= 0) return new AlphaBetaResult(m, g.hasCapture() ? quiescence(g, alpha, beta, ply) : val);
+			if (val < limitValue || counters.shouldStop()) return new AlphaBetaResult(m, val);
+		
+			//Look for the game state in the transposition table
+			long key = g.getKey();
+			long entry = table.probe(key);
+			counters.probeTable(entry != TranspositionTable.MISS);
+			int hashMove = -1;
+			if (entry != TranspositionTable.MISS) {
+				hashMove = TranspositionTable.moveOf(entry);
+				if (ply > 0 && TranspositionTable.depthOf(entry) >= depth) {
+					double score = fromTableScore(TranspositionTable.scoreOf(entry), ply);
+					int bound = asBlackBound(TranspositionTable.boundOf(entry));
+					if (bound == TranspositionTable.EXACT) return new AlphaBetaResult(hashMove, score);
+					if (bound == TranspositionTable.LOWER) alpha = Math.max(alpha, score);
+					else beta = Math.min(beta, score);
+					if (beta <= alpha) return new AlphaBetaResult(hashMove, score);
+				}
+			}
+			double alphaOrig = alpha;
+			double betaOrig = beta;
+		
+			counters.expand();
+		
+			//Get the available moves, searching the one from the previous iteration or the table first
+			boolean onPv = followPv && ply < prevPvLength;
+			MoveList moves = getMoveList(ply);
+			g.generateMoves(moves);
+			if (isMaxPlayer) moves.shuffle(rnd);
+			ordering.order(moves, ply, onPv ? prevPv[ply] : hashMove);
+		
+			//Evaluate all games state reachable with each possible move
+			int bestMove = -1;
+			double bestValue = isMaxPlayer ? Double.NEGATIVE_INFINITY : Double.POSITIVE_INFINITY;
+			for (int i = 0; i < moves.size(); i++) {
+				int possibleMove = moves.get(i);
+				followPv = onPv && i == 0 && possibleMove == prevPv[ply];
+				int undoToken = g.apply(possibleMove, moves.getCaptured(i));
+				AlphaBetaResult resChild = alphaBeta(g, possibleMove, alpha, beta, !isMaxPlayer, ply + 1, depth - 1);
+				g.undo(undoToken);
+				if (counters.isAborted()) break;
+				if (isMaxPlayer ? resChild.value > bestValue : resChild.value < bestValue) {
+					bestMove = possibleMove;
+					bestValue = resChild.value;
+					updatePv(ply, possibleMove);
+					if (ply == 0) rootCaptured = moves.getCaptured(i);
+				}
+				if (isMaxPlayer) alpha = Math.max(alpha, bestValue);
+				else beta = Math.min(beta, bestValue);
+				if (beta <= alpha) {
+					counters.cutoff(i == 0);
+					ordering.onCutoff(possibleMove, ply, depth);
+					break;
+				}
+			}
+		
+			//Save the result, unless the search has been stopped
+			if (!counters.isAborted()) {
+				int bound = TranspositionTable.EXACT;
+				if (bestValue <= alphaOrig) bound = TranspositionTable.UPPER;
+				else if (bestValue >= betaOrig) bound = TranspositionTable.LOWER;
+				table.store(key, depth, asBlackBound(bound), toTableScore(bestValue, ply), bestMove);
+			}
+			return new AlphaBetaResult(bestMove, bestValue);
+		}
+	
+		/**
+		 * Keep searching only the captures until the position is quiet, so that
+		 * a leaf is never evaluated in the middle of an exchange. Captures are
+		 * mandatory, so the player to move can't stand pat while one is available.
+		 * Quiescence nodes have their own counter and are not subject to the node limit.
+		 *
+		 * @param g     the game state to evaluate, children are searched applying and undoing moves on it.
+		 * @param alpha the current best outcome possible for maximizing player.
+		 * @param beta  the current best outcome possible for minimizing player.
+		 * @param ply   the distance from the root of the search.
+		 * @return the value of the quiet positions reached, to be ignored if the search was stopped.
+		 */
+		private double quiescence(GameState g, double alpha, double beta, int ply) {
+			double val = eval(g, isBlack);
+			counters.evaluate();
+			if (g.isGameOver()) return val;
+			
+			val -= (double) ply / 1000;
+			if (!g.hasCapture() || counters.shouldStopQuiescence()) return val;
+			
+			counters.expandQuiescence();
+			
+			boolean isMaxPlayer = g.isP1Turn() == isBlack;
+			MoveList moves = getMoveList(ply);
+			g.generateMoves(moves);
+			double bestValue = isMaxPlayer ? Double.NEGATIVE_INFINITY : Double.POSITIVE_INFINITY;
+			for (int i = 0; i < moves.size(); i++) {
+				int undoToken = g.apply(moves.get(i), moves.getCaptured(i));
+				double value = quiescence(g, alpha, beta, ply + 1);
+				g.undo(undoToken);
+				if (counters.isAborted()) break;
+				if (isMaxPlayer) {
+					bestValue = Math.max(bestValue, value);
+					alpha = Math.max(alpha, bestValue);
+				} else {
+					bestValue = Math.min(bestValue, value);
+					beta = Math.min(beta, bestValue);
+				}
+				if (beta <= alpha) {
+					counters.cutoff(i == 0);
+					break;
+				}
+			}
+			return bestValue;
+		}
+	
+		/**
+		 * Set the principal variation of a ply to a move followed by the principal
+		 * variation of the next ply.
+		 *
+		 * @param ply  the ply of the new best move.
+		 * @param move the encoded best move.
+		 */
+		private void updatePv(int ply, int move) {
+			pvTable[ply][ply] = move;
+			int end = Math.max(ply + 1, pvLength[ply + 1]);
+			for (int j = ply + 1; j < end; j++) pvTable[ply][j] = pvTable[ply + 1][j];
+			pvLength[ply] = end;
+		}
+	
+		/**
+		 * Get the move buffer of a ply, creating it the first time the ply is reached.
+		 *
+		 * @param ply the distance from the root of the search.
+		 * @return the move buffer reserved to the ply.
+		 */
+		private MoveList getMoveList(int ply) {
+			if (ply >= moveLists.length) {
+				MoveList[] grown = new MoveList[Math.max(ply + 1, moveLists.length * 2)];
+				System.arraycopy(moveLists, 0, grown, 0, moveLists.length);
+				for (int i = moveLists.length; i < grown.length; i++) grown[i] = new MoveList();
+				moveLists = grown;
+			}
+			return moveLists[ply];
+		}
+	}
+	
 }
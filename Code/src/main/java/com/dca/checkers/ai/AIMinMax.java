@@ -3,13 +3,13 @@ package com.dca.checkers.ai;
 
 import com.dca.checkers.model.Board;
 import com.dca.checkers.model.GameState;
-import com.dca.checkers.model.Move;
+import com.dca.checkers.model.MoveList;
 import com.dca.checkers.model.Player;
+import com.dca.checkers.model.SearchStats;
+import com.dca.checkers.monitor.EngineMonitor;
+import com.dca.checkers.monitor.SearchEvent;
 
-import java.util.Collections;
-import java.util.HashSet;
-import java.util.List;
-import java.util.Set;
+import java.util.Random;
 
 /**
  * The {@code AIRandomPlayer} class represents a AI player that updates
@@ -25,11 +25,6 @@ public class AIMinMax implements Player {
 	 */
 	private boolean moveDone;
 	
-	/**
-	 * Number of expanded nodes
-	 */
-	private static int expandedNodes = 0;
-	
 	/**
 	 * limit value for state value
 	 */
@@ -40,12 +35,62 @@ public class AIMinMax implements Player {
 	 */
 	private int limitSize = 100000;
 	
-	/** The max depth reached with last updateGame execution */
-	private int maxDepthReached;
+	/** Bookkeeping of the last updateGame execution. */
+	private volatile SearchContext lastSearch;
+	
+	/** The statistics of the last updateGame execution. */
+	private volatile SearchStats lastStats = SearchStats.EMPTY;
+	
+	/** Collects the searches of all the instances and holds the settings changed through JMX. */
+	private final EngineMonitor monitor = EngineMonitor.of(AIMinMax.class);
+	
+	/** Reusable move buffers, one for each ply of the search. */
+	private MoveList[] moveLists = new MoveList[0];
+	
+	/** Source of randomness used to shuffle the moves of the max player. */
+	private final Random rnd;
+	
+	public AIMinMax() {
+		this.rnd = new Random();
+	}
+	
+	/**
+	 * Creates a MinMax AI whose choices among moves of equal value are reproducible.
+	 *
+	 * @param seed the seed of the source of randomness.
+	 */
+	public AIMinMax(long seed) {
+		this.rnd = new Random(seed);
+	}
+	
+	/**
+	 * Set the limit of nodes expanded for a move.
+	 *
+	 * @param nodeLimit the number of nodes (at least 1).
+	 */
+	public void setNodeLimit(int nodeLimit) {
+		this.limitSize = Math.max(1, nodeLimit);
+	}
+	
+	public int getNodeLimit() {
+		return limitSize;
+	}
 	
 	@Override
 	public int getLastMaxDepthReached() {
-		return maxDepthReached;
+		SearchContext search = lastSearch;
+		return search == null ? -1 : search.getMaxDepthReached();
+	}
+	
+	@Override
+	public long getLastExpandedNodes() {
+		SearchContext search = lastSearch;
+		return search == null ? 0 : search.getExpandedNodes();
+	}
+	
+	@Override
+	public SearchStats getLastSearchStats() {
+		return lastStats;
 	}
 	
 	@Override
@@ -56,18 +101,28 @@ public class AIMinMax implements Player {
 	@Override
 	synchronized public void updateGame(GameState gameState) {
 		moveDone = false;
-		maxDepthReached = -1;
+		lastSearch = null;
+		lastStats = SearchStats.EMPTY;
 		// Nothing to do
 		if (gameState == null || gameState.isGameOver()) {
 			moveDone = true;
 			return;
 		}
 		isBlack = gameState.isP1Turn();
-		expandedNodes = 0;
+		SearchEvent event = new SearchEvent();
+		event.begin();
+		long startTime = System.nanoTime();
+		SearchContext search = new SearchContext(monitor.nodeLimit(limitSize), Long.MAX_VALUE);
+		SearchContext.Counters counters = search.newCounters();
 		//Select best move
-		MinMaxResult bestResult = minMax(gameState.copy(), null, true, 0);
+		MinMaxResult bestResult = minMax(gameState.copy(), -1, true, 0, counters);
+		counters.publish();
+		lastSearch = search;
+		lastStats = search.toStats(System.nanoTime() - startTime);
+		monitor.record(lastStats);
+		event.commit(this, lastStats, bestResult.move);
 		//Apply best move
-		gameState.move(bestResult.move.getStartIndex(), bestResult.move.getEndIndex());
+		gameState.playMove(bestResult.move, bestResult.captured);
 		moveDone = true;
 	}
 	
@@ -82,11 +137,18 @@ public class AIMinMax implements Player {
 	}
 	
 	private class MinMaxResult {
-		Move move;
+		int move;
+		int captured;
 		double value;
 		
-		public MinMaxResult(Move m, double v) {
+		public MinMaxResult(int m, double v) {
+			move = m;
+			value = v;
+		}
+		
+		public MinMaxResult(int m, int c, double v) {
 			move = m;
+			captured = c;
 			value = v;
 		}
 		
@@ -95,94 +157,157 @@ public class AIMinMax implements Player {
 	/**
 	 * Execute min-max algorithm in order to find the best move.
 	 *
-	 * @param g the game state to evaluate
+	 * @param g the game state to evaluate, children are searched applying and undoing moves on it.
 	 * @param isMaxPlayer flag that tells if the current player is max (true) or min (false)
 	 * @param depth the depth of the recursion.
+	 * @param counters the counters of the search.
 	 * @return the result of min max algorithm.
 	 */
-	private MinMaxResult minMax(GameState g, Move m, boolean isMaxPlayer, int depth) {
-		double val = eval(g.getBoard(), isBlack);
-		maxDepthReached = Math.max(depth, maxDepthReached);
+	private MinMaxResult minMax(GameState g, int m, boolean isMaxPlayer, int depth, SearchContext.Counters counters) {
+		double val = eval(g, isBlack);
+		counters.evaluate();
+		counters.reach(depth);
 		if (g.isGameOver()) return new MinMaxResult(m, val);
 		
 		val -= (double) depth / 1000;
-		if (expandedNodes >= limitSize || val < limitValue) return new MinMaxResult(m, val);
+		if (val < limitValue) return new MinMaxResult(m, val);
+		if (counters.isNodeLimitReached()) {
+			return new MinMaxResult(m, g.hasCapture() ? quiescence(g, depth, counters) : val);
+		}
 		
 		double maxVal;
 		double minVal;
-		Move bestMove = null;
+		int bestMove = -1;
+		int bestCaptured = 0;
 		double bestValue = 0;
 		
-		expandedNodes++;
+		counters.expand();
+		int ply = depth;
 		
 		if(isMaxPlayer) {
 			maxVal = Integer.MIN_VALUE;
 			//Get the available moves
-			List<Move> moves = g.getAllMoves();
-			Collections.shuffle(moves);
+			MoveList moves = getMoveList(ply);
+			g.generateMoves(moves);
+			moves.shuffle(rnd);
 			//Evaluate all games state reachable with each possible move
-			for (Move possibleMove : moves) {
-				GameState childState = g.copy();
-				childState.move(possibleMove.getStartIndex(), possibleMove.getEndIndex());
-				MinMaxResult resChild = minMax(childState, possibleMove, false, depth + 1);
+			for (int i = 0; i < moves.size(); i++) {
+				int possibleMove = moves.get(i);
+				int undoToken = g.apply(possibleMove, moves.getCaptured(i));
+				MinMaxResult resChild = minMax(g, possibleMove, false, depth + 1, counters);
+				g.undo(undoToken);
 				if(resChild.value > maxVal) {
 					maxVal = resChild.value;
 					bestMove = possibleMove;
+					bestCaptured = moves.getCaptured(i);
 					bestValue = resChild.value;
 				}
 			}
-			return new MinMaxResult(bestMove, bestValue);
+			return new MinMaxResult(bestMove, bestCaptured, bestValue);
 			
 		} else {//Min player
 			minVal = Integer.MAX_VALUE;
 			//Get the available moves
-			List<Move> moves = g.getAllMoves();
+			MoveList moves = getMoveList(ply);
+			g.generateMoves(moves);
 			//Evaluate all games state reachable with each possible move
-			for (Move possibleMove : moves) {
-				GameState childState = g.copy();
-				childState.move(possibleMove.getStartIndex(), possibleMove.getEndIndex());
-				MinMaxResult resChild = minMax(childState, possibleMove, true, depth + 1);
+			for (int i = 0; i < moves.size(); i++) {
+				int possibleMove = moves.get(i);
+				int undoToken = g.apply(possibleMove, moves.getCaptured(i));
+				MinMaxResult resChild = minMax(g, possibleMove, true, depth + 1, counters);
+				g.undo(undoToken);
 				if(resChild.value < minVal) {
 					minVal = resChild.value;
 					bestMove = possibleMove;
+					bestCaptured = moves.getCaptured(i);
 					bestValue = resChild.value;
 				}
 			}
-			return new MinMaxResult(bestMove, bestValue);
+			return new MinMaxResult(bestMove, bestCaptured, bestValue);
 		}
 		
 		
 	}
 	
+	/**
+	 * Keep searching only the captures until the position is quiet, so that
+	 * a leaf is never evaluated in the middle of an exchange. Captures are
+	 * mandatory, so the player to move can't stand pat while one is available.
+	 * Quiescence nodes have their own counter and are not subject to the node limit.
+	 *
+	 * @param g the game state to evaluate, children are searched applying and undoing moves on it.
+	 * @param depth the depth of the recursion.
+	 * @param counters the counters of the search.
+	 * @return the value of the quiet positions reached.
+	 */
+	private double quiescence(GameState g, int depth, SearchContext.Counters counters) {
+		double val = eval(g, isBlack);
+		counters.evaluate();
+		if (g.isGameOver()) return val;
+		
+		val -= (double) depth / 1000;
+		if (!g.hasCapture()) return val;
+		
+		counters.expandQuiescence();
+		
+		boolean isMaxPlayer = g.isP1Turn() == isBlack;
+		MoveList moves = getMoveList(depth);
+		g.generateMoves(moves);
+		double bestValue = isMaxPlayer ? Double.NEGATIVE_INFINITY : Double.POSITIVE_INFINITY;
+		for (int i = 0; i < moves.size(); i++) {
+			int undoToken = g.apply(moves.get(i), moves.getCaptured(i));
+			double value = quiescence(g, depth + 1, counters);
+			g.undo(undoToken);
+			bestValue = isMaxPlayer ? Math.max(bestValue, value) : Math.min(bestValue, value);
+		}
+		return bestValue;
+	}
+	
 	/**
 	 * Counts the value of player's pieces and subtracts from it
 	 * the value of opponent’s pieces.
 	 *
-	 * @param b         the board state to use for the evaluation.
+	 * @param g         the game state to evaluate.
 	 * @param evalForP1 flag that tells if current game state must be evaluated for player 1 (true) or player 2 (false).
 	 * @return current state game value for player 1 or player 2.
 	 */
-	private double eval(Board b, boolean evalForP1) {
+	private double eval(GameState g, boolean evalForP1) {
 		double value = 0;
 		final double W_CHECKER = 1;
 		final double W_KING = 2;
 		
 		if (evalForP1) {
 			//Number of pieces
-			value += b.find(Board.BLACK_CHECKER).size() * W_CHECKER;
-			value += b.find(Board.BLACK_KING).size() * W_KING;
-			value -= b.find(Board.WHITE_CHECKER).size() * W_CHECKER;
-			value -= b.find(Board.WHITE_KING).size() * W_KING;
+			value += g.count(Board.BLACK_CHECKER) * W_CHECKER;
+			value += g.count(Board.BLACK_KING) * W_KING;
+			value -= g.count(Board.WHITE_CHECKER) * W_CHECKER;
+			value -= g.count(Board.WHITE_KING) * W_KING;
 		} else {//Eval for P2
-			value += b.find(Board.WHITE_CHECKER).size() * W_CHECKER;
-			value += b.find(Board.WHITE_KING).size() * W_KING;
-			value -= b.find(Board.BLACK_CHECKER).size() * W_CHECKER;
-			value -= b.find(Board.BLACK_KING).size() * W_KING;
+			value += g.count(Board.WHITE_CHECKER) * W_CHECKER;
+			value += g.count(Board.WHITE_KING) * W_KING;
+			value -= g.count(Board.BLACK_CHECKER) * W_CHECKER;
+			value -= g.count(Board.BLACK_KING) * W_KING;
 		}
 		
 		return value;
 	}
 	
+	/**
+	 * Get the move buffer of a ply, creating it the first time the ply is reached.
+	 *
+	 * @param ply the distance from the root of the search.
+	 * @return the move buffer reserved to the ply.
+	 */
+	private MoveList getMoveList(int ply) {
+		if (ply >= moveLists.length) {
+			MoveList[] grown = new MoveList[Math.max(ply + 1, moveLists.length * 2)];
+			System.arraycopy(moveLists, 0, grown, 0, moveLists.length);
+			for (int i = moveLists.length; i < grown.length; i++) grown[i] = new MoveList();
+			moveLists = grown;
+		}
+		return moveLists[ply];
+	}
+	
 	@Override
 	public String toString() {
 		return getClass().getSimpleName() + "[isHuman=" + isHuman() + "]";
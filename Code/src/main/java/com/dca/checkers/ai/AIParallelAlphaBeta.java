@@ -0,0 +1,681 @@
+package com.dca.checkers.ai;
+
+import com.dca.checkers.model.Board;
+import com.dca.checkers.model.GameState;
+import com.dca.checkers.model.MoveList;
+import com.dca.checkers.model.Player;
+import com.dca.checkers.model.SearchStats;
+import com.dca.checkers.monitor.EngineMonitor;
+import com.dca.checkers.monitor.SearchEvent;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The {@code AIParallelAlphaBeta} class represents a AI player that updates
+ * the board based on a parallel alpha beta algorithm (Young Brothers Wait)
+ * running on a {@link ForkJoinPool}.
+ * <p>
+ * At each node the first (eldest) child is searched sequentially, to get a
+ * good bound first. The remaining siblings are then forked as tasks that
+ * share the bounds of their parent: every result narrows the window of the
+ * siblings, which read it again before each of their children, and a cutoff
+ * aborts all the siblings still running. Nodes close to the leaves are searched sequentially.
+ * <p>
+ * Like {@link AIAlphaBeta}, the search is an iterative deepening bounded by
+ * a time budget and a hard deadline, with a lock-free transposition table
+ * used for cutoffs and to search the best move first. Moves are not shuffled.
+ */
+public class AIParallelAlphaBeta implements Player {
+	
+	/** Minimum remaining depth of a node whose younger brothers are searched in parallel. */
+	private static final int MIN_SPLIT_DEPTH = 3;
+	
+	/** Seconds an idle worker thread is kept alive waiting for the next move. */
+	private static final long WORKER_KEEP_ALIVE = 30;
+	
+	/**
+	 * Flag that tells if the AI is playing the black checkers (player 1).
+	 */
+	private boolean isBlack;
+	
+	/**
+	 * Flag that tells if the move has been performed.
+	 */
+	private boolean moveDone;
+	
+	/**
+	 * Maximum depth of the tree to build.
+	 */
+	private int maxSearchDepth = AIAlphaBeta.MAX_SEARCH_DEPTH;
+	
+	/**
+	 * Time budget for a move in milliseconds: no new iteration of the
+	 * iterative deepening is started once it is over.
+	 */
+	private long timeBudget = AIAlphaBeta.DEFAULT_TIME_BUDGET;
+	
+	/**
+	 * Limit of expanded nodes for a move, by all the tasks together (no limit by default: the time budget decides).
+	 */
+	private int limitSize = Integer.MAX_VALUE;
+	
+	/**
+	 * Hard deadline for a move in milliseconds: the iteration in progress is
+	 * abandoned when it is over, and the move of the last completed one is played.
+	 */
+	private long hardDeadline = AIAlphaBeta.DEFAULT_HARD_DEADLINE;
+	
+	/** Bookkeeping of the last updateGame execution. */
+	private volatile SearchContext lastSearch;
+	
+	/** The statistics of the last updateGame execution. */
+	private volatile SearchStats lastStats = SearchStats.EMPTY;
+	
+	/** Collects the searches of all the instances and holds the settings changed through JMX. */
+	private final EngineMonitor monitor = EngineMonitor.of(AIParallelAlphaBeta.class);
+	
+	/** Best move found at the root by the iteration in progress. */
+	private volatile int rootBestMove;
+	
+	/** Tiles captured by {@link #rootBestMove}. */
+	private volatile int rootBestCaptured;
+	
+	/** Results of the positions already searched, shared by all the tasks. */
+	private final TranspositionTable table;
+	
+	/** Number of threads of the pool. */
+	private int parallelism = Runtime.getRuntime().availableProcessors();
+	
+	/**
+	 * The pool running the search tasks, created on first use and none with a
+	 * parallelism of 1. Its workers are daemon threads ending when idle.
+	 */
+	private ForkJoinPool pool;
+	
+	/** Minimum remaining depth of a node split by the search in progress. */
+	private int minSplitDepth = MIN_SPLIT_DEPTH;
+	
+	public AIParallelAlphaBeta() {
+		this(AIAlphaBeta.DEFAULT_TABLE_SIZE_MB);
+	}
+	
+	/**
+	 * Creates a parallel alpha beta AI with a transposition table of the specified size.
+	 *
+	 * @param tableSizeMb the size of the transposition table in megabytes.
+	 */
+	public AIParallelAlphaBeta(int tableSizeMb) {
+		this.table = new TranspositionTable(tableSizeMb);
+	}
+	
+	@Override
+	public int getLastMaxDepthReached() {
+		SearchContext search = lastSearch;
+		return search == null ? -1 : search.getMaxDepthReached();
+	}
+	
+	@Override
+	public boolean isHuman() {
+		return false;
+	}
+	
+	@Override
+	synchronized public void updateGame(GameState gameState) {
+		moveDone = false;
+		lastSearch = null;
+		lastStats = SearchStats.EMPTY;
+		// Nothing to do
+		if (gameState == null || gameState.isGameOver()) {
+			moveDone = true;
+			return;
+		}
+		isBlack = gameState.isP1Turn();
+		SearchEvent event = new SearchEvent();
+		event.begin();
+		long startTime = System.nanoTime();
+		long timeBudget = monitor.timeBudget(this.timeBudget);
+		long budgetTime = startTime + timeBudget * 1000000L;
+		long stopTime = startTime + Math.max(timeBudget, hardDeadline) * 1000000L;
+		SearchContext search = new SearchContext(monitor.nodeLimit(limitSize), stopTime, true);
+		preparePool();
+		
+		//A forced move doesn't need a search
+		MoveList rootMoves = new MoveList();
+		gameState.generateMoves(rootMoves);
+		int bestMove = rootMoves.get(0);
+		int bestCaptured = rootMoves.getCaptured(0);
+		
+		//Search one ply deeper at a time, until the time budget is over
+		for (int depth = 1; depth <= maxSearchDepth && rootMoves.size() > 1; depth++) {
+			rootBestMove = -1;
+			NodeTask root = new NodeTask(search, null, gameState.copy(), -1, 0, 0, depth);
+			if (pool == null) root.invoke();
+			else pool.invoke(root);
+			if (search.isStopped()) break;
+			if (rootBestMove >= 0) {
+				bestMove = rootBestMove;
+				bestCaptured = rootBestCaptured;
+			}
+			search.setCompletedDepth(depth);
+			if (System.nanoTime() >= budgetTime) break;
+		}
+		lastSearch = search;
+		lastStats = search.toStats(System.nanoTime() - startTime);
+		monitor.record(lastStats);
+		event.commit(this, lastStats, bestMove);
+		
+		//Apply best move
+		gameState.playMove(bestMove, bestCaptured);
+		moveDone = true;
+	}
+	
+	/**
+	 * Create the pool needed by the current parallelism. With a parallelism
+	 * of 1 the search runs on the calling thread, without splitting any node.
+	 */
+	private void preparePool() {
+		if (pool != null && pool.getParallelism() != parallelism) {
+			pool.shutdown();
+			pool = null;
+		}
+		if (parallelism > 1 && pool == null) {
+			pool = new ForkJoinPool(parallelism, ForkJoinPool.defaultForkJoinWorkerThreadFactory, null, false,
+					0, parallelism + 256, 1, null, WORKER_KEEP_ALIVE, TimeUnit.SECONDS);
+		}
+		minSplitDepth = pool == null ? Integer.MAX_VALUE : MIN_SPLIT_DEPTH;
+	}
+	
+	@Override
+	public boolean hasSkipped() {
+		return false;
+	}
+	
+	@Override
+	public boolean hasMoved() {
+		return moveDone;
+	}
+	
+	/**
+	 * Get the depth of the last iteration completed by the last updateGame execution.
+	 *
+	 * @return the completed depth, 0 if the move was forced.
+	 */
+	public int getLastCompletedDepth() {
+		SearchContext search = lastSearch;
+		return search == null ? 0 : search.getCompletedDepth();
+	}
+	
+	/**
+	 * Get the number of nodes expanded by the last updateGame execution.
+	 *
+	 * @return the number of expanded nodes.
+	 */
+	@Override
+	public long getLastExpandedNodes() {
+		SearchContext search = lastSearch;
+		return search == null ? 0 : search.getExpandedNodes();
+	}
+	
+	@Override
+	public SearchStats getLastSearchStats() {
+		return lastStats;
+	}
+	
+	/**
+	 * Set the number of threads of the fork/join pool: with 1, the search is
+	 * sequential and runs on the thread asking for the move.
+	 *
+	 * @param parallelism the number of threads (at least 1).
+	 */
+	synchronized public void setParallelism(int parallelism) {
+		this.parallelism = Math.max(1, parallelism);
+	}
+	
+	/**
+	 * Set the time budget for a move: once it is over, no deeper iteration is started.
+	 *
+	 * @param millis the time budget in milliseconds.
+	 */
+	public void setTimeBudget(long millis) {
+		this.timeBudget = Math.max(0, millis);
+	}
+	
+	/**
+	 * Set the hard deadline for a move: once it is over, the iteration in progress
+	 * is abandoned. It is never shorter than the time budget.
+	 *
+	 * @param millis the hard deadline in milliseconds.
+	 */
+	public void setHardDeadline(long millis) {
+		this.hardDeadline = Math.max(0, millis);
+	}
+	
+	/**
+	 * Set the limit of nodes expanded for a move by all the tasks together.
+	 * It is checked every few nodes, so it may be exceeded by a few thousands.
+	 *
+	 * @param nodeLimit the number of nodes (at least 1), {@link Integer#MAX_VALUE} for no limit.
+	 */
+	public void setNodeLimit(int nodeLimit) {
+		this.limitSize = Math.max(1, nodeLimit);
+	}
+	
+	public int getNodeLimit() {
+		return limitSize;
+	}
+	
+	/**
+	 * Set the maximum depth reachable by the iterative deepening.
+	 *
+	 * @param depth the maximum depth (from 1 to {@link AIAlphaBeta#MAX_SEARCH_DEPTH}).
+	 */
+	public void setMaxSearchDepth(int depth) {
+		this.maxSearchDepth = Math.max(1, Math.min(depth, AIAlphaBeta.MAX_SEARCH_DEPTH));
+	}
+	
+	/**
+	 * Convert the value of a node to the score stored in the transposition
+	 * table: from the point of view of the black player, and without the
+	 * penalty of the ply of the node, so that the score can be reused at any
+	 * ply and in the searches of the next moves.
+	 *
+	 * @param value the value of the node, from the point of view of this AI.
+	 * @param ply   the distance of the node from the root.
+	 * @return the score to store.
+	 */
+	private double toTableScore(double value, int ply) {
+		double score = value + (double) ply / 1000;
+		return isBlack ? score : -score;
+	}
+	
+	/**
+	 * Convert a score stored in the transposition table to the value of a
+	 * node (see {@link #toTableScore(double, int)}).
+	 *
+	 * @param score the stored score.
+	 * @param ply   the distance of the node from the root.
+	 * @return the value of the node, from the point of view of this AI.
+	 */
+	private double fromTableScore(double score, int ply) {
+		return (isBlack ? score : -score) - (double) ply / 1000;
+	}
+	
+	/**
+	 * Convert a bound type between the point of view of this AI and the one
+	 * of the black player used in the transposition table (in both directions).
+	 *
+	 * @param bound the bound type to convert.
+	 * @return the converted bound type.
+	 */
+	private int asBlackBound(int bound) {
+		if (isBlack || bound == TranspositionTable.EXACT) return bound;
+		return bound == TranspositionTable.LOWER ? TranspositionTable.UPPER : TranspositionTable.LOWER;
+	}
+	
+	/**
+	 * Counts the value of player's pieces and subtracts from it
+	 * the value of opponent’s pieces.
+	 *
+	 * @param g         the game state to evaluate.
+	 * @param evalForP1 flag that tells if current game state must be evaluated for player 1 (true) or player 2 (false).
+	 * @return current state game value for player 1 or player 2.
+	 */
+	private double eval(GameState g, boolean evalForP1) {
+		double value = 0;
+		final double W_CHECKER = 1;
+		final double W_KING = 2;
+		
+		if (evalForP1) {
+			//Number of pieces
+			value += g.count(Board.BLACK_CHECKER) * W_CHECKER;
+			value += g.count(Board.BLACK_KING) * W_KING;
+			value -= g.count(Board.WHITE_CHECKER) * W_CHECKER;
+			value -= g.count(Board.WHITE_KING) * W_KING;
+		} else {//Eval for P2
+			value += g.count(Board.WHITE_CHECKER) * W_CHECKER;
+			value += g.count(Board.WHITE_KING) * W_KING;
+			value -= g.count(Board.BLACK_CHECKER) * W_CHECKER;
+			value -= g.count(Board.BLACK_KING) * W_KING;
+		}
+		
+		return value;
+	}
+	
+	@Override
+	public String toString() {
+		return getClass().getSimpleName() + "[isHuman=" + isHuman() + "]";
+	}
+	
+	/**
+	 * The {@code SplitPoint} class holds the shared bounds of a node whose
+	 * younger brothers are being searched in parallel.
+	 */
+	private static class SplitPoint {
+		
+		/** The closest split point above this one, null for the root. */
+		final SplitPoint parent;
+		
+		/** Flag that tells if the player of the node is max (true) or min (false). */
+		final boolean isMaxPlayer;
+		
+		/** The current best outcome possible for maximizing player. */
+		double alpha;
+		
+		/** The current best outcome possible for minimizing player. */
+		double beta;
+		
+		/** The best value found so far. */
+		double bestValue;
+		
+		/** The best move found so far (encoded). */
+		int bestMove;
+		
+		/** Tiles captured by the best move found so far. */
+		int bestCaptured;
+		
+		/** Flag that tells if a child has caused a cutoff: the other children must stop. */
+		volatile boolean cutoff;
+		
+		SplitPoint(SplitPoint parent, boolean isMaxPlayer, double alpha, double beta, double bestValue, int bestMove,
+		           int bestCaptured) {
+			this.parent = parent;
+			this.isMaxPlayer = isMaxPlayer;
+			this.alpha = alpha;
+			this.beta = beta;
+			this.bestValue = bestValue;
+			this.bestMove = bestMove;
+			this.bestCaptured = bestCaptured;
+		}
+		
+		/**
+		 * Record the value of a child, narrowing the window and flagging a cutoff.
+		 *
+		 * @param move     the encoded move to the child.
+		 * @param captured the tiles captured by the move.
+		 * @param value    the value of the child.
+		 */
+		synchronized void update(int move, int captured, double value) {
+			if (isMaxPlayer ? value > bestValue : value < bestValue) {
+				bestValue = value;
+				bestMove = move;
+				bestCaptured = captured;
+			}
+			if (isMaxPlayer) alpha = Math.max(alpha, bestValue);
+			else beta = Math.min(beta, bestValue);
+			if (beta <= alpha) cutoff = true;
+		}
+		
+		/**
+		 * Tell if this split point or one above it had a cutoff.
+		 *
+		 * @return true if the search below this split point is useless.
+		 */
+		boolean isAborted() {
+			for (SplitPoint sp = this; sp != null; sp = sp.parent) {
+				if (sp.cutoff) return true;
+			}
+			return false;
+		}
+	}
+	
+	/**
+	 * The {@code NodeTask} class searches a node with its own copy of the game
+	 * state and its own move buffers, and reports its value to the split point
+	 * that forked it (if any).
+	 */
+	private class NodeTask extends RecursiveAction {
+		
+		private static final long serialVersionUID = 1L;
+		
+		/** The context of the search. */
+		private final SearchContext search;
+		
+		/** The split point that forked this task, null for the root. */
+		private final SplitPoint parent;
+		
+		/** The game state searched, updated applying and undoing moves. */
+		private final GameState state;
+		
+		/** The move that led to the state (encoded, -1 for the root). */
+		private final int move;
+		
+		/** The tiles captured by the move. */
+		private final int captured;
+		
+		/** The distance of the state from the root. */
+		private final int ply;
+		
+		/** The remaining depth of the tree to build. */
+		private final int depth;
+		
+		/** Reusable move buffers, one for each ply below this task. */
+		private MoveList[] moveLists = new MoveList[0];
+		
+		/** The counters of this task. */
+		private SearchContext.Counters counters;
+		
+		NodeTask(SearchContext search, SplitPoint parent, GameState state, int move, int captured, int ply, int depth) {
+			this.search = search;
+			this.parent = parent;
+			this.state = state;
+			this.move = move;
+			this.captured = captured;
+			this.ply = ply;
+			this.depth = depth;
+		}
+		
+		@Override
+		protected void compute() {
+			if (parent != null && parent.isAborted()) return;
+			counters = search.newCounters();
+			double alpha = Double.NEGATIVE_INFINITY, beta = Double.POSITIVE_INFINITY;
+			boolean isMaxPlayer = true;
+			if (parent != null) {
+				synchronized (parent) {
+					alpha = parent.alpha;
+					beta = parent.beta;
+				}
+				isMaxPlayer = !parent.isMaxPlayer;
+			}
+			double value = search(alpha, beta, isMaxPlayer, ply, depth, parent);
+			counters.publish();
+			if (parent != null && !search.isStopped() && !parent.isAborted()) parent.update(move, captured, value);
+		}
+		
+		/**
+		 * Tell if the search must be abandoned, because of the hard deadline or a cutoff above.
+		 */
+		private boolean isAborted(SplitPoint sp) {
+			return counters.shouldStop() || (sp != null && sp.isAborted());
+		}
+		
+		/**
+		 * Execute alpha beta algorithm on the state of this task. The first
+		 * child is searched on this thread; if it doesn't cause a cutoff and
+		 * the node is deep enough, the others are forked as new tasks. Leaves
+		 * with a capture pending are extended by a quiescence search.
+		 *
+		 * @param alpha       the current best outcome possible for maximizing player.
+		 * @param beta        the current best outcome possible for minimizing player.
+		 * @param isMaxPlayer flag that tells if the current player is max (true) or min (false)
+		 * @param ply         the distance from the root of the search.
+		 * @param depth       the remaining depth of the tree to build.
+		 * @param sp          the closest split point above the node, null if none.
+		 * @return the value of the node, to be ignored if the search was aborted.
+		 */
+		private double search(double alpha, double beta, boolean isMaxPlayer, int ply, int depth, SplitPoint sp) {
+			GameState g = state;
+			double val = eval(g, isBlack);
+			counters.evaluate();
+			counters.reach(ply);
+			if (g.isGameOver()) return val;
+			
+			val -= (double) ply / 1000;
+			if (depth <= 0) return g.hasCapture() ? quiescence(g, alpha, beta, ply, sp) : val;
+			if (isAborted(sp)) return val;
+			
+			//Look for the game state in the transposition table
+			long key = g.getKey();
+			long entry = table.probe(key);
+			counters.probeTable(entry != TranspositionTable.MISS);
+			int hashMove = -1;
+			if (entry != TranspositionTable.MISS) {
+				hashMove = TranspositionTable.moveOf(entry);
+				if (ply > 0 && TranspositionTable.depthOf(entry) >= depth) {
+					double score = fromTableScore(TranspositionTable.scoreOf(entry), ply);
+					int bound = asBlackBound(TranspositionTable.boundOf(entry));
+					if (bound == TranspositionTable.EXACT) return score;
+					if (bound == TranspositionTable.LOWER) alpha = Math.max(alpha, score);
+					else beta = Math.min(beta, score);
+					if (beta <= alpha) return score;
+				}
+			}
+			double alphaOrig = alpha;
+			double betaOrig = beta;
+			
+			counters.expand();
+			
+			//Get the available moves, searching the one from the table first
+			MoveList moves = getMoveList(ply - this.ply);
+			g.generateMoves(moves);
+			for (int i = 1; i < moves.size(); i++) {
+				if (moves.get(i) == hashMove) moves.swap(0, i);
+			}
+			
+			//Search the eldest brother here, the others in parallel if the node is deep enough
+			int bestMove = -1;
+			int bestCaptured = 0;
+			double bestValue = isMaxPlayer ? Double.NEGATIVE_INFINITY : Double.POSITIVE_INFINITY;
+			int i = 0;
+			for (; i < moves.size(); i++) {
+				//A younger brother narrows its window with the bounds found meanwhile by its siblings
+				if (i > 0 && ply == this.ply && parent != null) {
+					double parentAlpha, parentBeta;
+					synchronized (parent) {
+						parentAlpha = parent.alpha;
+						parentBeta = parent.beta;
+					}
+					alpha = Math.max(alpha, parentAlpha);
+					beta = Math.min(beta, parentBeta);
+					alphaOrig = Math.max(alphaOrig, parentAlpha);
+					betaOrig = Math.min(betaOrig, parentBeta);
+					//The value can no longer matter: return a bound on the side the window closed, without storing it
+					if (beta <= alpha) return isMaxPlayer ? Math.max(bestValue, alpha) : Math.min(bestValue, beta);
+				}
+				if (i == 1 && depth >= minSplitDepth) break;
+				int possibleMove = moves.get(i);
+				int undoToken = g.apply(possibleMove, moves.getCaptured(i));
+				double value = search(alpha, beta, !isMaxPlayer, ply + 1, depth - 1, sp);
+				g.undo(undoToken);
+				if (isAborted(sp)) return bestValue;
+				if (isMaxPlayer ? value > bestValue : value < bestValue) {
+					bestMove = possibleMove;
+					bestCaptured = moves.getCaptured(i);
+					bestValue = value;
+				}
+				if (isMaxPlayer) alpha = Math.max(alpha, bestValue);
+				else beta = Math.min(beta, bestValue);
+				if (beta <= alpha) {
+					counters.cutoff(i == 0);
+					break;
+				}
+			}
+			if (i < moves.size() && beta > alpha) {
+				SplitPoint split = new SplitPoint(sp, isMaxPlayer, alpha, beta, bestValue, bestMove, bestCaptured);
+				List<NodeTask> brothers = new ArrayList<>(moves.size() - i);
+				for (; i < moves.size(); i++) {
+					GameState child = g.copy();
+					child.apply(moves.get(i), moves.getCaptured(i));
+					brothers.add(new NodeTask(search, split, child, moves.get(i), moves.getCaptured(i), ply + 1, depth - 1));
+				}
+				invokeAll(brothers);
+				//A brother caused the cutoff, so it wasn't the first move searched
+				if (split.cutoff) counters.cutoff(false);
+				if (isAborted(sp)) return bestValue;
+				bestValue = split.bestValue;
+				bestMove = split.bestMove;
+				bestCaptured = split.bestCaptured;
+			}
+			
+			//Save the result, unless the search has been stopped
+			if (!search.isStopped()) {
+				int bound = TranspositionTable.EXACT;
+				if (bestValue <= alphaOrig) bound = TranspositionTable.UPPER;
+				else if (bestValue >= betaOrig) bound = TranspositionTable.LOWER;
+				table.store(key, depth, asBlackBound(bound), toTableScore(bestValue, ply), bestMove);
+				if (ply == 0) {
+					rootBestCaptured = bestCaptured;
+					rootBestMove = bestMove;
+				}
+			}
+			return bestValue;
+		}
+		
+		/**
+		 * Keep searching only the captures until the position is quiet, so that
+		 * a leaf is never evaluated in the middle of an exchange. Captures are
+		 * mandatory, so the player to move can't stand pat while one is available.
+		 * Quiescence nodes have their own counter and are not subject to the node limit.
+		 *
+		 * @param g     the game state to evaluate, children are searched applying and undoing moves on it.
+		 * @param alpha the current best outcome possible for maximizing player.
+		 * @param beta  the current best outcome possible for minimizing player.
+		 * @param ply   the distance from the root of the search.
+		 * @param sp    the closest split point above the node, null if none.
+		 * @return the value of the quiet positions reached, to be ignored if the search was aborted.
+		 */
+		private double quiescence(GameState g, double alpha, double beta, int ply, SplitPoint sp) {
+			double val = eval(g, isBlack);
+			counters.evaluate();
+			if (g.isGameOver()) return val;
+			
+			val -= (double) ply / 1000;
+			if (!g.hasCapture() || counters.shouldStopQuiescence() || (sp != null && sp.isAborted())) return val;
+			
+			counters.expandQuiescence();
+			
+			boolean isMaxPlayer = g.isP1Turn() == isBlack;
+			MoveList moves = getMoveList(ply - this.ply);
+			g.generateMoves(moves);
+			double bestValue = isMaxPlayer ? Double.NEGATIVE_INFINITY : Double.POSITIVE_INFINITY;
+			for (int i = 0; i < moves.size(); i++) {
+				int undoToken = g.apply(moves.get(i), moves.getCaptured(i));
+				double value = quiescence(g, alpha, beta, ply + 1, sp);
+				g.undo(undoToken);
+				if (search.isStopped() || (sp != null && sp.isAborted())) break;
+				if (isMaxPlayer) {
+					bestValue = Math.max(bestValue, value);
+					alpha = Math.max(alpha, bestValue);
+				} else {
+					bestValue = Math.min(bestValue, value);
+					beta = Math.min(beta, bestValue);
+				}
+				if (beta <= alpha) {
+					counters.cutoff(i == 0);
+					break;
+				}
+			}
+			return bestValue;
+		}
+		
+		/**
+		 * Get the move buffer of a ply below this task, creating it the first time the ply is reached.
+		 *
+		 * @param ply the distance from the state of this task.
+		 * @return the move buffer reserved to the ply.
+		 */
+		private MoveList getMoveList(int ply) {
+			if (ply >= moveLists.length) {
+				MoveList[] grown = new MoveList[Math.max(ply + 1, moveLists.length * 2)];
+				System.arraycopy(moveLists, 0, grown, 0, moveLists.length);
+				for (int i = moveLists.length; i < grown.length; i++) grown[i] = new MoveList();
+				moveLists = grown;
+			}
+			return moveLists[ply];
+		}
+	}
+}
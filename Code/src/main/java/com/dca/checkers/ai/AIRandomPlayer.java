@@ -4,6 +4,7 @@ package com.dca.checkers.ai;
 import com.dca.checkers.model.*;
 
 import java.util.List;
+import java.util.Random;
 
 /**
  * The {@code AIRandomPlayer} class represents a AI player who plays randomly
@@ -15,6 +16,22 @@ public class AIRandomPlayer implements Player {
 	 */
 	private boolean moveDone;
 	
+	/** Source of randomness used to choose the moves. */
+	private final Random rnd;
+	
+	public AIRandomPlayer() {
+		this.rnd = new Random();
+	}
+	
+	/**
+	 * Creates a random AI whose choices are reproducible.
+	 *
+	 * @param seed the seed of the source of randomness.
+	 */
+	public AIRandomPlayer(long seed) {
+		this.rnd = new Random(seed);
+	}
+	
 	@Override
 	public int getLastMaxDepthReached() {
 		return -1;
@@ -38,9 +55,9 @@ public class AIRandomPlayer implements Player {
 		GameState copy = gameState.copy();
 		List<Move> moves = copy.getAllMoves();
 		// Choose a random move
-		int moveId = (int)(Math.random() * moves.size()-1);
+		int moveId = rnd.nextInt(moves.size());
 		Move selectedMove = moves.get(moveId);
-		gameState.move(selectedMove.getStart(), selectedMove.getEnd());
+		gameState.move(selectedMove.getStartIndex(), selectedMove.getEndIndex());
 		moveDone = true;
 	}
 	
@@ -0,0 +1,130 @@
+package com.dca.checkers.ai;
+
+import com.dca.checkers.model.Move;
+import com.dca.checkers.model.MoveList;
+
+import java.util.Arrays;
+
+/**
+ * The {@code MoveOrdering} class sorts the moves of a node so that the ones
+ * most likely to cause a cutoff are searched first:
+ * <ol>
+ *     <li>the hash move (from the transposition table or the previous principal variation);</li>
+ *     <li>skips;</li>
+ *     <li>the two killer moves of the ply (quiet moves that caused a cutoff at the same ply);</li>
+ *     <li>the other moves, by their history score (how often and how deep the
+ *     same start and end tiles caused a cutoff).</li>
+ * </ol>
+ * Killers and history are meant to be shared by all the iterations of one
+ * search, and reset with {@link #clear()} when a new search begins.
+ */
+public class MoveOrdering {
+	
+	/** Score of the hash move. */
+	private static final int HASH_SCORE = Integer.MAX_VALUE;
+	
+	/** Score of a skip. */
+	private static final int SKIP_SCORE = 1 << 30;
+	
+	/** Score of the first killer move of a ply. */
+	private static final int KILLER_1_SCORE = SKIP_SCORE - 1;
+	
+	/** Score of the second killer move of a ply. */
+	private static final int KILLER_2_SCORE = SKIP_SCORE - 2;
+	
+	/** History scores are halved when one of them reaches this value. */
+	private static final int HISTORY_LIMIT = 1 << 24;
+	
+	/** Two killer moves for each ply (encoded, -1 for none). */
+	private final int[][] killers;
+	
+	/** History scores, indexed by {@code start * 32 + end}. */
+	private final int[] history = new int[32 * 32];
+	
+	/** Scores of the moves being sorted. */
+	private int[] scores = new int[64];
+	
+	/**
+	 * Creates the ordering stage for a search up to the specified ply.
+	 *
+	 * @param maxPly the maximum ply of the search.
+	 */
+	public MoveOrdering(int maxPly) {
+		this.killers = new int[maxPly + 1][2];
+		clear();
+	}
+	
+	/**
+	 * Forgets all the killer moves and history scores.
+	 */
+	public void clear() {
+		for (int[] k : killers) {
+			k[0] = -1;
+			k[1] = -1;
+		}
+		Arrays.fill(history, 0);
+	}
+	
+	/**
+	 * Sorts the moves of a node, best candidates first. Moves with the same
+	 * score keep their relative order.
+	 *
+	 * @param moves    the moves to sort.
+	 * @param ply      the ply of the node.
+	 * @param hashMove the encoded move to search first, or -1 if none.
+	 */
+	public void order(MoveList moves, int ply, int hashMove) {
+		int n = moves.size();
+		if (scores.length < n) scores = new int[Math.max(n, scores.length * 2)];
+		
+		// Score and insert each move in the sorted part (swapping, to keep captured tiles along)
+		for (int i = 0; i < n; i++) {
+			int score = score(moves.get(i), ply, hashMove);
+			int j = i;
+			scores[j] = score;
+			while (j > 0 && scores[j - 1] < score) {
+				scores[j] = scores[j - 1];
+				scores[j - 1] = score;
+				moves.swap(j, j - 1);
+				j--;
+			}
+		}
+	}
+	
+	/**
+	 * Records a move that caused a cutoff. Quiet moves become the first killer
+	 * of the ply and gain history score in proportion to the searched depth.
+	 *
+	 * @param move  the encoded move.
+	 * @param ply   the ply of the node.
+	 * @param depth the remaining depth of the node.
+	 */
+	public void onCutoff(int move, int ply, int depth) {
+		if (Move.isSkip(move)) return;
+		
+		// Killers
+		int[] k = killers[ply];
+		if (k[0] != move) {
+			k[1] = k[0];
+			k[0] = move;
+		}
+		
+		// History
+		int index = Move.startOf(move) * 32 + Move.endOf(move);
+		history[index] += depth * depth;
+		if (history[index] >= HISTORY_LIMIT) {
+			for (int i = 0; i < history.length; i++) history[i] >>= 1;
+		}
+	}
+	
+	/**
+	 * Gives a move its ordering score.
+	 */
+	private int score(int move, int ply, int hashMove) {
+		if (move == hashMove) return HASH_SCORE;
+		if (Move.isSkip(move)) return SKIP_SCORE;
+		if (killers[ply][0] == move) return KILLER_1_SCORE;
+		if (killers[ply][1] == move) return KILLER_2_SCORE;
+		return history[Move.startOf(move) * 32 + Move.endOf(move)];
+	}
+}
@@ -0,0 +1,341 @@
+package com.dca.checkers.ai;
+
+import com.dca.checkers.model.SearchStats;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The {@code SearchContext} class holds the bookkeeping of a single search:
+ * its limits, its stop flag and the counters of the nodes expanded.
+ * <p>
+ * Every updateGame execution creates its own context, so AI instances never
+ * share mutable state and any number of them can search at the same time.
+ * The threads taking part in a search count on their own {@link Counters}
+ * and publish them to the context when they are done.
+ */
+final class SearchContext {
+	
+	/** Number of expanded nodes between two checks of the clock (a power of 2). */
+	private static final int CLOCK_CHECK_INTERVAL = 1024;
+	
+	/** Limit of expanded nodes for each thread of the search, or for the whole search if shared. */
+	private final long nodeLimit;
+	
+	/** Flag that tells if the node limit bounds the nodes of all the threads together. */
+	private final boolean sharedNodeLimit;
+	
+	/** Time (as {@link System#nanoTime()}) when the search must stop. */
+	private final long stopTime;
+	
+	/** Flag that tells if the search has been stopped. */
+	private volatile boolean stopped;
+	
+	/** Number of nodes expanded by all the threads of the search. */
+	private final LongAdder expandedNodes = new LongAdder();
+	
+	/** Number of quiescence nodes expanded by all the threads of the search. */
+	private final LongAdder quiescenceNodes = new LongAdder();
+	
+	/** Number of positions evaluated by all the threads of the search. */
+	private final LongAdder evaluations = new LongAdder();
+	
+	/** Number of beta cutoffs of all the threads of the search. */
+	private final LongAdder betaCutoffs = new LongAdder();
+	
+	/** Number of beta cutoffs caused by the first move searched. */
+	private final LongAdder firstMoveCutoffs = new LongAdder();
+	
+	/** Number of lookups in the transposition table. */
+	private final LongAdder tableProbes = new LongAdder();
+	
+	/** Number of lookups that found the position in the transposition table. */
+	private final LongAdder tableHits = new LongAdder();
+	
+	/** The max depth reached by the threads of the search. */
+	private final AtomicInteger maxDepthReached = new AtomicInteger(-1);
+	
+	/** The depth of the last completed iteration, for iterative deepening searches. */
+	private volatile int completedDepth;
+	
+	/**
+	 * Creates the context of a new search.
+	 *
+	 * @param nodeLimit the limit of expanded nodes for each thread.
+	 * @param stopTime  the time (as {@link System#nanoTime()}) when the search must stop,
+	 *                  {@link Long#MAX_VALUE} for no deadline.
+	 */
+	SearchContext(long nodeLimit, long stopTime) {
+		this(nodeLimit, stopTime, false);
+	}
+	
+	/**
+	 * Creates the context of a new search whose node limit may bound the nodes
+	 * of all the threads together, e.g. for searches split in many short tasks.
+	 * A shared limit is checked against the published nodes, together with the
+	 * clock: it may be exceeded by the nodes of the tasks still running.
+	 *
+	 * @param nodeLimit       the limit of expanded nodes.
+	 * @param stopTime        the time (as {@link System#nanoTime()}) when the search must stop,
+	 *                        {@link Long#MAX_VALUE} for no deadline.
+	 * @param sharedNodeLimit flag that tells if the limit bounds all the threads together
+	 *                        rather than each of them.
+	 */
+	SearchContext(long nodeLimit, long stopTime, boolean sharedNodeLimit) {
+		this.nodeLimit = nodeLimit;
+		this.stopTime = stopTime;
+		this.sharedNodeLimit = sharedNodeLimit;
+	}
+	
+	/**
+	 * Create the counters of a thread taking part in the search, that stops
+	 * the whole search when it reaches the node limit.
+	 *
+	 * @return new counters bound to this context.
+	 */
+	Counters newCounters() {
+		return new Counters(true);
+	}
+	
+	/**
+	 * Create the counters of a helper thread: when it reaches the node limit
+	 * it only abandons its own work (see {@link Counters#isAborted()}), so
+	 * that helpers never cut short the search of the main thread.
+	 *
+	 * @return new counters bound to this context.
+	 */
+	Counters newHelperCounters() {
+		return new Counters(false);
+	}
+	
+	/**
+	 * Stop the search: every thread will abandon it at its next check.
+	 */
+	void stop() {
+		stopped = true;
+	}
+	
+	boolean isStopped() {
+		return stopped;
+	}
+	
+	/**
+	 * Get the number of nodes published by the threads of the search.
+	 *
+	 * @return the number of expanded nodes.
+	 */
+	long getExpandedNodes() {
+		return expandedNodes.sum();
+	}
+	
+	/**
+	 * Get the number of quiescence nodes published by the threads of the search.
+	 *
+	 * @return the number of expanded quiescence nodes.
+	 */
+	long getQuiescenceNodes() {
+		return quiescenceNodes.sum();
+	}
+	
+	/**
+	 * Get the max depth published by the threads of the search.
+	 *
+	 * @return the max depth reached, -1 if no node has been searched.
+	 */
+	int getMaxDepthReached() {
+		return maxDepthReached.get();
+	}
+	
+	int getCompletedDepth() {
+		return completedDepth;
+	}
+	
+	void setCompletedDepth(int completedDepth) {
+		this.completedDepth = completedDepth;
+	}
+	
+	/**
+	 * Take a snapshot of the counters published by the threads of the search.
+	 *
+	 * @param elapsedTime the duration of the search in nanoseconds.
+	 * @return the statistics of the search.
+	 */
+	SearchStats toStats(long elapsedTime) {
+		return new SearchStats(expandedNodes.sum(), quiescenceNodes.sum(), evaluations.sum(), betaCutoffs.sum(),
+				firstMoveCutoffs.sum(), tableProbes.sum(), tableHits.sum(), elapsedTime, completedDepth,
+				maxDepthReached.get());
+	}
+	
+	/**
+	 * The {@code Counters} class counts the work of a single thread of the
+	 * search, without any synchronization, until it is published.
+	 */
+	final class Counters {
+		
+		/** Number of nodes expanded since the last publication. */
+		private long nodes;
+		
+		/** Number of quiescence nodes expanded since the last publication, not subject to the node limit. */
+		private long qNodes;
+		
+		/** Number of positions evaluated since the last publication. */
+		private long evals;
+		
+		/** Number of beta cutoffs since the last publication. */
+		private long cutoffs;
+		
+		/** Number of beta cutoffs caused by the first move since the last publication. */
+		private long firstCutoffs;
+		
+		/** Number of table lookups since the last publication. */
+		private long probes;
+		
+		/** Number of table hits since the last publication. */
+		private long hits;
+		
+		/** The max depth reached since the last publication. */
+		private int maxDepth = -1;
+		
+		/** Flag that tells if reaching the node limit stops the whole search. */
+		private final boolean stopsSearch;
+		
+		/** Flag that tells if this thread has reached the node limit without stopping the search. */
+		private boolean exhausted;
+		
+		Counters(boolean stopsSearch) {
+			this.stopsSearch = stopsSearch;
+		}
+		
+		/**
+		 * Count an expanded node.
+		 */
+		void expand() {
+			nodes++;
+		}
+		
+		/**
+		 * Count an expanded quiescence node.
+		 */
+		void expandQuiescence() {
+			qNodes++;
+		}
+		
+		/**
+		 * Count an evaluated position.
+		 */
+		void evaluate() {
+			evals++;
+		}
+		
+		/**
+		 * Count a beta cutoff.
+		 *
+		 * @param firstMove flag that tells if the cutoff was caused by the first move searched.
+		 */
+		void cutoff(boolean firstMove) {
+			cutoffs++;
+			if (firstMove) firstCutoffs++;
+		}
+		
+		/**
+		 * Count a lookup in the transposition table.
+		 *
+		 * @param hit flag that tells if the position was found.
+		 */
+		void probeTable(boolean hit) {
+			probes++;
+			if (hit) hits++;
+		}
+		
+		/**
+		 * Record that a node at the specified depth has been reached.
+		 *
+		 * @param depth the distance of the node from the root.
+		 */
+		void reach(int depth) {
+			if (depth > maxDepth) maxDepth = depth;
+		}
+		
+		long getNodes() {
+			return nodes;
+		}
+		
+		/**
+		 * Tell if this thread has expanded all the nodes it is allowed to.
+		 *
+		 * @return true if the node limit has been reached.
+		 */
+		boolean isNodeLimitReached() {
+			return nodes >= nodeLimit;
+		}
+		
+		/**
+		 * Tell if this thread must abandon the search. The search is stopped
+		 * for every thread when, checked every {@link SearchContext#CLOCK_CHECK_INTERVAL}
+		 * nodes, the stop time is reached or when this thread reaches the node
+		 * limit; a helper reaching the node limit only abandons its own work.
+		 *
+		 * @return true if the search has been abandoned by this thread.
+		 */
+		boolean shouldStop() {
+			if (stopped || exhausted) return true;
+			if (nodes >= nodeLimit) {
+				if (stopsSearch) stopped = true;
+				else exhausted = true;
+				return true;
+			}
+			if ((nodes & (CLOCK_CHECK_INTERVAL - 1)) == 0) {
+				if (System.nanoTime() >= stopTime) stopped = true;
+				else if (sharedNodeLimit && expandedNodes.sum() + nodes >= nodeLimit) stopped = true;
+			}
+			return stopped;
+		}
+		
+		/**
+		 * Tell if this thread has abandoned the search, because it has been
+		 * stopped or because this helper has reached the node limit. The
+		 * values returned by an abandoned search must be ignored.
+		 *
+		 * @return true if the search has been abandoned by this thread.
+		 */
+		boolean isAborted() {
+			return stopped || exhausted;
+		}
+		
+		/**
+		 * Tell if the search must be abandoned during a quiescence search: it
+		 * is stopped when the stop time is reached, but never by the node limit.
+		 *
+		 * @return true if the search has been stopped.
+		 */
+		boolean shouldStopQuiescence() {
+			if (stopped || exhausted) return true;
+			if ((qNodes & (CLOCK_CHECK_INTERVAL - 1)) == 0 && System.nanoTime() >= stopTime) {
+				stopped = true;
+			}
+			return stopped;
+		}
+		
+		/**
+		 * Add the counters to the totals of the search and reset them.
+		 */
+		void publish() {
+			expandedNodes.add(nodes);
+			quiescenceNodes.add(qNodes);
+			evaluations.add(evals);
+			betaCutoffs.add(cutoffs);
+			firstMoveCutoffs.add(firstCutoffs);
+			tableProbes.add(probes);
+			tableHits.add(hits);
+			maxDepthReached.accumulateAndGet(maxDepth, Math::max);
+			nodes = 0;
+			qNodes = 0;
+			evals = 0;
+			cutoffs = 0;
+			firstCutoffs = 0;
+			probes = 0;
+			hits = 0;
+			maxDepth = -1;
+		}
+	}
+}
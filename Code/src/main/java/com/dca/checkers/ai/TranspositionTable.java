@@ -0,0 +1,187 @@
+package com.dca.checkers.ai;
+
+import java.util.Arrays;
+
+/**
+ * The {@code TranspositionTable} class caches the results of the positions
+ * already searched, indexed by their Zobrist key
+ * (see {@link com.dca.checkers.model.GameState#getKey()}).
+ * <p>
+ * The table is made of two preallocated {@code long[]} arrays, one for the
+ * keys and one for the packed data, so storing and probing never allocate.
+ * Entries are grouped in buckets of two: the first slot keeps the deepest
+ * result seen for the bucket (depth-preferred), the second one is overwritten
+ * by every other store (always-replace).
+ * <p>
+ * The table can be shared by several searching threads without locks:
+ * each slot stores {@code key ^ data} instead of the key, so an entry whose
+ * two words were written by different threads (or read halfway through a
+ * write) doesn't match its key any more and is seen as a miss.
+ * <p>
+ * The packed data of an entry is laid out as follows:
+ * <ul>
+ *     <li>bits 0 - 15: best move (encoded, see {@link com.dca.checkers.model.Move#encode(int, int, int, com.dca.checkers.model.MoveType)});</li>
+ *     <li>bits 16 - 17: bound type ({@link #EXACT}, {@link #LOWER} or {@link #UPPER});</li>
+ *     <li>bits 18 - 25: searched depth;</li>
+ *     <li>bits 32 - 63: score, as the bits of a {@code float}.</li>
+ * </ul>
+ */
+public class TranspositionTable {
+	
+	/** The score is the exact value of the position. */
+	public static final int EXACT = 1;
+	
+	/** The score is a lower bound of the value of the position (fail high). */
+	public static final int LOWER = 2;
+	
+	/** The score is an upper bound of the value of the position (fail low). */
+	public static final int UPPER = 3;
+	
+	/** Value returned by {@link #probe(long)} when the position is not in the table. */
+	public static final long MISS = 0;
+	
+	/** Bytes used by one entry (key and data). */
+	private static final int ENTRY_BYTES = 2 * Long.BYTES;
+	
+	/** Number of entries in a bucket. */
+	private static final int BUCKET_SIZE = 2;
+	
+	/** Packed value of "no best move". */
+	private static final int NO_MOVE = 0xFFFF;
+	
+	/** Keys of the entries, XOR-ed with their data. */
+	private final long[] keys;
+	
+	/** Packed data of the entries. */
+	private final long[] data;
+	
+	/** Mask used to map a key to its bucket. */
+	private final int bucketMask;
+	
+	/**
+	 * Creates a table that uses about the specified amount of memory. The
+	 * number of buckets is rounded down to a power of two.
+	 *
+	 * @param sizeMb the size of the table in megabytes (at least 1).
+	 */
+	public TranspositionTable(int sizeMb) {
+		long entries = Math.max(1, sizeMb) * 1024L * 1024L / ENTRY_BYTES;
+		int buckets = Integer.highestOneBit((int) Math.min(entries / BUCKET_SIZE, 1 << 28));
+		this.keys = new long[buckets * BUCKET_SIZE];
+		this.data = new long[buckets * BUCKET_SIZE];
+		this.bucketMask = buckets - 1;
+	}
+	
+	/**
+	 * Removes all the entries.
+	 */
+	public void clear() {
+		Arrays.fill(keys, 0);
+		Arrays.fill(data, 0);
+	}
+	
+	/**
+	 * Looks up a position.
+	 *
+	 * @param key the Zobrist key of the position.
+	 * @return the packed data of the entry, or {@link #MISS} if the position
+	 * is not in the table.
+	 */
+	public long probe(long key) {
+		int slot = bucketOf(key);
+		for (int i = slot; i < slot + BUCKET_SIZE; i++) {
+			long entry = data[i];
+			if (entry != MISS && (keys[i] ^ entry) == key) return entry;
+		}
+		return MISS;
+	}
+	
+	/**
+	 * Stores the result of the search of a position. The result goes in the
+	 * depth-preferred slot if it is at least as deep as the one there (which
+	 * is moved to the always-replace slot), in the always-replace slot
+	 * otherwise.
+	 *
+	 * @param key   the Zobrist key of the position.
+	 * @param depth the depth searched below the position (from 0 to 255).
+	 * @param bound the type of the score ({@link #EXACT}, {@link #LOWER} or {@link #UPPER}).
+	 * @param score the score of the position.
+	 * @param move  the best move found (encoded), or -1 if none.
+	 */
+	public void store(long key, int depth, int bound, double score, int move) {
+		long entry = pack(depth, bound, score, move);
+		int slot = bucketOf(key);
+		long preferredKey = keys[slot], preferred = data[slot];
+		boolean sameKey = (preferredKey ^ preferred) == key;
+		if (sameKey || depth >= depthOf(preferred)) {
+			if (!sameKey && preferred != MISS) {
+				keys[slot + 1] = preferredKey;
+				data[slot + 1] = preferred;
+			}
+			keys[slot] = key ^ entry;
+			data[slot] = entry;
+		} else {
+			keys[slot + 1] = key ^ entry;
+			data[slot + 1] = entry;
+		}
+	}
+	
+	/**
+	 * Gets the depth of a packed entry.
+	 *
+	 * @param entry the packed data returned by {@link #probe(long)}.
+	 * @return the searched depth.
+	 */
+	public static int depthOf(long entry) {
+		return (int) (entry >>> 18) & 0xFF;
+	}
+	
+	/**
+	 * Gets the bound type of a packed entry.
+	 *
+	 * @param entry the packed data returned by {@link #probe(long)}.
+	 * @return {@link #EXACT}, {@link #LOWER} or {@link #UPPER}.
+	 */
+	public static int boundOf(long entry) {
+		return (int) (entry >>> 16) & 0b11;
+	}
+	
+	/**
+	 * Gets the score of a packed entry.
+	 *
+	 * @param entry the packed data returned by {@link #probe(long)}.
+	 * @return the stored score.
+	 */
+	public static double scoreOf(long entry) {
+		return Float.intBitsToFloat((int) (entry >>> 32));
+	}
+	
+	/**
+	 * Gets the best move of a packed entry.
+	 *
+	 * @param entry the packed data returned by {@link #probe(long)}.
+	 * @return the encoded best move, or -1 if none was stored.
+	 */
+	public static int moveOf(long entry) {
+		int move = (int) entry & 0xFFFF;
+		return move == NO_MOVE ? -1 : move;
+	}
+	
+	/**
+	 * Packs the data of an entry.
+	 */
+	private static long pack(int depth, int bound, double score, int move) {
+		long packed = (move < 0 ? NO_MOVE : move & 0xFFFF);
+		packed |= (long) (bound & 0b11) << 16;
+		packed |= (long) (Math.max(0, Math.min(depth, 0xFF))) << 18;
+		packed |= (long) Float.floatToIntBits((float) score) << 32;
+		return packed;
+	}
+	
+	/**
+	 * Gets the first slot of the bucket of a key.
+	 */
+	private int bucketOf(long key) {
+		return ((int) (key ^ (key >>> 32)) & bucketMask) * BUCKET_SIZE;
+	}
+}
@@ -13,6 +13,13 @@ import java.util.List;
  * {@link #get(int, int)}. Tile states can be set through
  * {@link #set(int, byte)} and {@link #set(int, int, byte)}. The entire game can
  * be reset with {@link #reset()}.
+ * <p>
+ * Internally the 32 black tiles are stored as three bitboards (bit {@code i}
+ * is the tile with index {@code i}): one for the black pieces, one for the
+ * white pieces and one for the kings of both colours. Moves and skips are
+ * found by shifting these masks one diagonal step at a time, so queries such
+ * as {@link #getMovers(boolean)} and {@link #getJumpers(boolean)} answer for
+ * every piece of a player at once.
  */
 public class Board {
 	/** Number of rows */
@@ -39,8 +46,29 @@ public class Board {
 	/** The ID of a white checker that is also a king. */
 	public static final byte WHITE_KING = 0b101; //4 * 1 + 2 * 0 + 1 * 1 = 5;
 	
-	/** The current state of the board, represented as three integers. */
-	private byte[] state;
+	/** Tiles on even rows (0, 2, 4, 6): their x-coordinate is odd. */
+	private static final int EVEN_ROWS = 0x0F0F0F0F;
+	
+	/** Tiles on odd rows (1, 3, 5, 7): their x-coordinate is even. */
+	private static final int ODD_ROWS = 0xF0F0F0F0;
+	
+	/** Tiles on the left edge of the board (x = 0). */
+	private static final int LEFT_EDGE = 0x10101010;
+	
+	/** Tiles on the right edge of the board (x = 7). */
+	private static final int RIGHT_EDGE = 0x08080808;
+	
+	/** The tiles occupied by a black checker or a black king. */
+	private int black;
+	
+	/** The tiles occupied by a white checker or a white king. */
+	private int white;
+	
+	/** The tiles occupied by a king of either colour. */
+	private int kings;
+	
+	/** The Zobrist key of the pieces on the board, updated by every {@link #set(int, byte)}. */
+	private long key;
 	
 	/**
 	 * Constructs a new checker game board, pre-filled with a new game state.
@@ -49,6 +77,16 @@ public class Board {
 		reset();
 	}
 	
+	/**
+	 * Creates a board with the specified state, without resetting it.
+	 */
+	private Board(int black, int white, int kings, long key) {
+		this.black = black;
+		this.white = white;
+		this.kings = kings;
+		this.key = key;
+	}
+	
 	/**
 	 * Creates an exact copy of the board. Any changes made to the copy will
 	 * not affect the current object.
@@ -56,9 +94,7 @@ public class Board {
 	 * @return a copy of this checker board.
 	 */
 	public Board copy() {
-		Board copy = new Board();
-		copy.state = state.clone();
-		return copy;
+		return new Board(black, white, kings, key);
 	}
 	
 	/**
@@ -68,11 +104,13 @@ public class Board {
 	 */
 	public void reset() {
 		
-		// Reset the state
-		this.state = new byte[32];
+		// Reset the state: tiles 0 - 11 are black, tiles 20 - 31 are white
+		this.black = 0x00000FFF;
+		this.white = 0xFFF00000;
+		this.kings = 0;
+		this.key = 0;
 		for (int i = 0; i < 12; i ++) {
-			set(i, BLACK_CHECKER);
-			set(31 - i, WHITE_CHECKER);
+			this.key ^= Zobrist.piece(BLACK_CHECKER, i) ^ Zobrist.piece(WHITE_CHECKER, 31 - i);
 		}
 	}
 	
@@ -87,14 +125,18 @@ public class Board {
 	public List<Point> find(byte id) {
 		
 		// Find all black tiles with matching IDs
-		List<Point> points = new ArrayList<>();
-		for (int i = 0; i < 32; i ++) {
-			if (get(i) == id) {
-				points.add(toPoint(i));
-			}
-		}
-		
-		return points;
+		return toPoints(getMask(id));
+	}
+	
+	/**
+	 * Counts the black tiles with the specified ID in constant time, without
+	 * scanning the board or creating any point (see {@link #find(byte)}).
+	 *
+	 * @param id	the ID to count.
+	 * @return the number of tiles with the ID, 0 if the ID is not valid.
+	 */
+	public int count(byte id) {
+		return Integer.bitCount(getMask(id));
 	}
 	
 	/**
@@ -114,7 +156,8 @@ public class Board {
 	/**
 	 * Sets the ID of a black tile on the board at the specified location.
 	 * If the location is not a black tile, nothing is updated. If the ID is
-	 * less than 0, the board at the location will be set to {@link #EMPTY}.
+	 * not one of the checker or king IDs, the board at the location will be
+	 * set to {@link #EMPTY}.
 	 *
 	 * @param index	the index of the black tile (from 0 to 31 inclusive).
 	 * @param id	the new ID to set the black tile to.
@@ -127,13 +170,20 @@ public class Board {
 			return;
 		}
 		
-		// Invalid ID, so just set to EMPTY
-		if (id < 0) {
-			id = EMPTY;
+		// Clear the tile, then add the piece (any other ID leaves it EMPTY)
+		this.key ^= Zobrist.piece(get(index), index) ^ Zobrist.piece(id, index);
+		int bit = 1 << index;
+		this.black &= ~bit;
+		this.white &= ~bit;
+		this.kings &= ~bit;
+		if (id == BLACK_CHECKER || id == BLACK_KING) {
+			this.black |= bit;
+		} else if (id == WHITE_CHECKER || id == WHITE_KING) {
+			this.white |= bit;
+		}
+		if (id == BLACK_KING || id == WHITE_KING) {
+			this.kings |= bit;
 		}
-		
-		// Set tile state
-		this.state[index] = id;
 	}
 	
 	/**
@@ -165,7 +215,124 @@ public class Board {
 		if (!isValidIndex(index)) {
 			return INVALID;
 		}
-		return state[index];
+		int bit = 1 << index;
+		if ((black & bit) != 0) {
+			return (kings & bit) != 0? BLACK_KING : BLACK_CHECKER;
+		}
+		if ((white & bit) != 0) {
+			return (kings & bit) != 0? WHITE_KING : WHITE_CHECKER;
+		}
+		return EMPTY;
+	}
+	
+	/**
+	 * Gets the bitboard of the black tiles that match the specified ID.
+	 *
+	 * @param id	the ID to search for.
+	 * @return a mask where bit {@code i} is set if and only if tile {@code i}
+	 * has the specified ID.
+	 * @see #find(byte)
+	 */
+	public int getMask(byte id) {
+		switch (id) {
+			case EMPTY:
+				return ~(black | white);
+			case BLACK_CHECKER:
+				return black & ~kings;
+			case BLACK_KING:
+				return black & kings;
+			case WHITE_CHECKER:
+				return white & ~kings;
+			case WHITE_KING:
+				return white & kings;
+			default:
+				return 0;
+		}
+	}
+	
+	/**
+	 * Gets the bitboard of all the black pieces (checkers and kings).
+	 *
+	 * @return the mask of the tiles occupied by black pieces.
+	 */
+	public int getBlack() {
+		return black;
+	}
+	
+	/**
+	 * Gets the bitboard of all the white pieces (checkers and kings).
+	 *
+	 * @return the mask of the tiles occupied by white pieces.
+	 */
+	public int getWhite() {
+		return white;
+	}
+	
+	/**
+	 * Gets the bitboard of all the kings, of both colours.
+	 *
+	 * @return the mask of the tiles occupied by kings.
+	 */
+	public int getKings() {
+		return kings;
+	}
+	
+	/**
+	 * Replaces the whole board content with the specified bitboards. Used to
+	 * restore a snapshot taken with {@link #getBlack()}, {@link #getWhite()}
+	 * and {@link #getKings()}.
+	 *
+	 * @param black	the tiles occupied by black pieces.
+	 * @param white	the tiles occupied by white pieces.
+	 * @param kings	the tiles occupied by kings.
+	 * @param key	the Zobrist key of the pieces, as returned by {@link #getKey()}.
+	 */
+	void setMasks(int black, int white, int kings, long key) {
+		this.black = black;
+		this.white = white;
+		this.kings = kings;
+		this.key = key;
+	}
+	
+	/**
+	 * Replaces the pieces on the board, computing their Zobrist key.
+	 *
+	 * @param black	the tiles occupied by black pieces.
+	 * @param white	the tiles occupied by white pieces (tiles also in black are ignored).
+	 * @param kings	the tiles occupied by kings (empty tiles are ignored).
+	 */
+	void setMasks(int black, int white, int kings) {
+		white &= ~black;
+		kings &= black | white;
+		long key = 0;
+		for (int pieces = black | white; pieces != 0; pieces &= pieces - 1) {
+			int index = Integer.numberOfTrailingZeros(pieces);
+			int bit = 1 << index;
+			byte id = (black & bit) != 0 ? ((kings & bit) != 0 ? BLACK_KING : BLACK_CHECKER)
+					: ((kings & bit) != 0 ? WHITE_KING : WHITE_CHECKER);
+			key ^= Zobrist.piece(id, index);
+		}
+		setMasks(black, white, kings, key);
+	}
+	
+	/**
+	 * Gets the Zobrist key of the pieces on the board. The key is kept up to
+	 * date by {@link #set(int, byte)}, so reading it costs nothing.
+	 *
+	 * @return the 64-bit key of the board.
+	 * @see Zobrist
+	 */
+	public long getKey() {
+		return key;
+	}
+	
+	/**
+	 * Gets the bitboard of the empty black tiles.
+	 *
+	 * @return the mask of the tiles without a piece.
+	 */
+	public int getEmpty() {
+		return ~(black | white);
 	}
 	
 	/**
@@ -481,27 +648,7 @@ public class Board {
 	 * @see #getPieceMoves(Point)
 	 */
 	public List<Point> getPieceMoves(int startIndex) {
-		
-		// Trivial cases
-		List<Point> endPoints = new ArrayList<>();
-		if (!Board.isValidIndex(startIndex)) {
-			return endPoints;
-		}
-		
-		// Determine possible points
-		int id = get(startIndex);
-		Point p = Board.toPoint(startIndex);
-		addPoints(endPoints, p, id, 1);
-		
-		// Remove invalid points
-		for (int i = 0; i < endPoints.size(); i++) {
-			Point end = endPoints.get(i);
-			if (get(end.x, end.y) != Board.EMPTY) {
-				endPoints.remove(i--);
-			}
-		}
-		
-		return endPoints;
+		return toPoints(getMoveTargets(startIndex));
 	}
 	
 	/**
@@ -525,31 +672,422 @@ public class Board {
 	 * @see #getPieceSkips(Point)
 	 */
 	public List<Point> getPieceSkips(int startIndex) {
+		return toPoints(getSkipTargets(startIndex));
+	}
+	
+	/**
+	 * Gets the bitboard of the tiles reachable with a normal move (no skip)
+	 * by the piece on the specified tile.
+	 *
+	 * @param startIndex the index of the piece to move.
+	 * @return the mask of the end tiles, or 0 if the tile is empty or invalid.
+	 * @see #getPieceMoves(int)
+	 */
+	public int getMoveTargets(int startIndex) {
 		
 		// Trivial cases
-		List<Point> endPoints = new ArrayList<>();
 		if (!Board.isValidIndex(startIndex)) {
-			return endPoints;
+			return 0;
+		}
+		int bit = 1 << startIndex;
+		if (((black | white) & bit) == 0) {
+			return 0;
 		}
 		
-		// Determine possible points
-		int id = get(startIndex);
-		Point p = Board.toPoint(startIndex);
-		addPoints(endPoints, p, id, 2);
+		// One step in each direction allowed for the piece
+		int targets = 0;
+		if ((black & bit) != 0 || (kings & bit) != 0) {
+			targets |= downRight(bit) | downLeft(bit);
+		}
+		if ((white & bit) != 0 || (kings & bit) != 0) {
+			targets |= upRight(bit) | upLeft(bit);
+		}
 		
-		// Remove invalid points
-		for (int i = 0; i < endPoints.size(); i++) {
-			
-			// Check that the skip is valid
-			Point end = endPoints.get(i);
-			if (!isValidSkip(startIndex, Board.toIndex(end))) {
-				endPoints.remove(i--);
-			}
+		return targets & getEmpty();
+	}
+	
+	/**
+	 * Gets the bitboard of the tiles reachable with a skip by the piece on
+	 * the specified tile. As per Italian rules, a checker cannot skip a king.
+	 *
+	 * @param startIndex the index of the piece that skips.
+	 * @return the mask of the end tiles, or 0 if the tile is empty or invalid.
+	 * @see #getPieceSkips(int)
+	 */
+	public int getSkipTargets(int startIndex) {
+		
+		// Trivial cases
+		if (!Board.isValidIndex(startIndex)) {
+			return 0;
+		}
+		int bit = 1 << startIndex;
+		if (((black | white) & bit) == 0) {
+			return 0;
 		}
 		
+		// Pieces that can be skipped by this one
+		boolean isBlack = (black & bit) != 0;
+		boolean isKing = (kings & bit) != 0;
+		int enemies = isBlack? white : black;
+		if (!isKing) {
+			enemies &= ~kings;
+		}
 		
+		// An enemy one step away and an empty tile right after it
+		int empty = getEmpty();
+		int targets = 0;
+		if (isBlack || isKing) {
+			targets |= downRight(downRight(bit) & enemies) & empty;
+			targets |= downLeft(downLeft(bit) & enemies) & empty;
+		}
+		if (!isBlack || isKing) {
+			targets |= upRight(upRight(bit) & enemies) & empty;
+			targets |= upLeft(upLeft(bit) & enemies) & empty;
+		}
+		
+		return targets;
+	}
+	
+	/**
+	 * Gets the bitboard of the pieces of a player that can perform at least a
+	 * normal move (no skip).
+	 *
+	 * @param isBlack	the flag indicating the player (true for black).
+	 * @return the mask of the tiles of the movable pieces.
+	 */
+	public int getMovers(boolean isBlack) {
+		int empty = getEmpty();
 		
-		return endPoints;
+		// A tile has an empty neighbour below iff it is above an empty tile
+		int emptyBelow = upLeft(empty) | upRight(empty);
+		int emptyAbove = downLeft(empty) | downRight(empty);
+		if (isBlack) {
+			return (black & emptyBelow) | (black & kings & emptyAbove);
+		}
+		return (white & emptyAbove) | (white & kings & emptyBelow);
+	}
+	
+	/**
+	 * Gets the bitboard of the pieces of a player that can perform at least a
+	 * skip. As per Italian rules, a checker cannot skip a king.
+	 *
+	 * @param isBlack	the flag indicating the player (true for black).
+	 * @return the mask of the tiles of the pieces that can skip.
+	 */
+	public int getJumpers(boolean isBlack) {
+		int empty = getEmpty();
+		int own = isBlack? black : white;
+		int enemies = isBlack? white : black;
+		int enemyCheckers = enemies & ~kings;
+		
+		// Tiles from which a skip lands on an empty tile, per direction
+		int jumpDown = upLeft(upLeft(empty) & enemies) | upRight(upRight(empty) & enemies);
+		int jumpUp = downLeft(downLeft(empty) & enemies) | downRight(downRight(empty) & enemies);
+		int checkerJumpDown = upLeft(upLeft(empty) & enemyCheckers) | upRight(upRight(empty) & enemyCheckers);
+		int checkerJumpUp = downLeft(downLeft(empty) & enemyCheckers) | downRight(downRight(empty) & enemyCheckers);
+		
+		int checkers = own & ~kings & (isBlack? checkerJumpDown : checkerJumpUp);
+		return checkers | (own & kings & (jumpDown | jumpUp));
+	}
+	
+	/**
+	 * Tells if a player has at least one legal move, looking only at the
+	 * masks of its pieces: no move is generated and the check stops at the
+	 * first movable piece found.
+	 *
+	 * @param isBlack	the flag indicating the player (true for black).
+	 * @return true if the player can move or skip with at least one piece.
+	 */
+	public boolean hasAnyMove(boolean isBlack) {
+		
+		// No pieces left
+		if ((isBlack? black : white) == 0) {
+			return false;
+		}
+		return getMovers(isBlack) != 0 || getJumpers(isBlack) != 0;
+	}
+	
+	/**
+	 * Appends to a list all the moves available for a player: only the capture
+	 * sequences that respect the Italian rules precedence if at least one piece
+	 * can skip (see {@link #generateCaptures(int, MoveList)}), normal moves
+	 * otherwise. The list is not cleared and no object is allocated unless the
+	 * list has to grow.
+	 *
+	 * @param isBlack	the flag indicating the player (true for black).
+	 * @param moves		the list where encoded moves are appended.
+	 */
+	public void generateMoves(boolean isBlack, MoveList moves) {
+		
+		// Skips are mandatory
+		int jumpers = getJumpers(isBlack);
+		if (jumpers != 0) {
+			int base = moves.size();
+			long bestKey = -1;
+			while (jumpers != 0) {
+				bestKey = addCaptures(Integer.numberOfTrailingZeros(jumpers), base, bestKey, moves);
+				jumpers &= jumpers - 1;
+			}
+			return;
+		}
+		
+		// No skips, add the normal moves
+		int movers = getMovers(isBlack);
+		while (movers != 0) {
+			int start = Integer.numberOfTrailingZeros(movers);
+			int targets = getMoveTargets(start);
+			while (targets != 0) {
+				moves.add(Move.encode(start, Integer.numberOfTrailingZeros(targets), -1, MoveType.NORMAL));
+				targets &= targets - 1;
+			}
+			movers &= movers - 1;
+		}
+	}
+	
+	/**
+	 * Appends to a list the capture sequences available for the piece on the
+	 * specified tile. Each sequence is a single move that goes from the tile
+	 * to the last landing tile, skipping as many pieces as possible: its
+	 * encoding holds the first piece skipped and the list keeps the mask of
+	 * all the captured tiles. A checker that reaches the last row stops there.
+	 * <p>
+	 * As per Italian rules, only the sequences with the highest precedence are
+	 * kept: the most pieces captured, then the sequences of a king, then the
+	 * most kings captured, then the sequences that meet a king first.
+	 *
+	 * @param startIndex	the index of the piece that skips.
+	 * @param moves			the list where encoded capture sequences are appended.
+	 */
+	public void generateCaptures(int startIndex, MoveList moves) {
+		addCaptures(startIndex, moves.size(), -1, moves);
+	}
+	
+	/**
+	 * Appends the capture sequences of a piece that have at least the best
+	 * precedence found so far, dropping the ones already in the list from the
+	 * specified position if a better sequence is found.
+	 *
+	 * @param startIndex	the index of the piece that skips.
+	 * @param base			the position of the first sequence of the current generation in the list.
+	 * @param bestKey		the precedence of the sequences in the list, -1 if none.
+	 * @param moves			the list where encoded capture sequences are appended.
+	 * @return the precedence of the sequences in the list after this piece.
+	 */
+	private long addCaptures(int startIndex, int base, long bestKey, MoveList moves) {
+		if (!Board.isValidIndex(startIndex)) {
+			return bestKey;
+		}
+		int bit = 1 << startIndex;
+		if (((black | white) & bit) == 0) {
+			return bestKey;
+		}
+		boolean isBlack = (black & bit) != 0;
+		return addCaptures(startIndex, startIndex, isBlack, (kings & bit) != 0, isBlack? white : black,
+				getEmpty() | bit, -1, 0, 0, 0, base, bestKey, moves);
+	}
+	
+	/**
+	 * Follows every capture sequence of a piece from the tile it has reached,
+	 * removing the captured pieces as it goes (as {@link GameState#move(int, int)}
+	 * does skip by skip), and records the sequences that can't be extended.
+	 *
+	 * @param startIndex	the index where the sequence started.
+	 * @param from			the index reached by the piece.
+	 * @param isBlack		the flag indicating the colour of the piece.
+	 * @param isKing		the flag indicating if the piece is a king.
+	 * @param enemies		the opponent pieces not captured yet.
+	 * @param empty			the empty tiles (the start one included).
+	 * @param firstMiddle	the index of the first piece captured, -1 if none yet.
+	 * @param captured		the mask of the captured tiles.
+	 * @param kingOrder		the hops that captured a king, as bits from the highest one.
+	 * @param hops			the number of pieces captured.
+	 * @param base			the position of the first sequence of the current generation in the list.
+	 * @param bestKey		the precedence of the sequences in the list, -1 if none.
+	 * @param moves			the list where encoded capture sequences are appended.
+	 * @return the precedence of the sequences in the list after this sequence.
+	 */
+	private long addCaptures(int startIndex, int from, boolean isBlack, boolean isKing, int enemies, int empty,
+							 int firstMiddle, int captured, int kingOrder, int hops, int base, long bestKey, MoveList moves) {
+		int bit = 1 << from;
+		int capturable = isKing? enemies : enemies & ~kings;
+		boolean extended = false;
+		for (int dir = 0; dir < 4; dir++) {
+			
+			// Checkers only skip forward
+			boolean down = dir < 2;
+			if (!isKing && isBlack != down) {
+				continue;
+			}
+			int mid = step(dir, bit) & capturable;
+			int land = step(dir, mid) & empty;
+			if (land == 0) {
+				continue;
+			}
+			extended = true;
+			int midIndex = Integer.numberOfTrailingZeros(mid);
+			int landIndex = Integer.numberOfTrailingZeros(land);
+			int order = kingOrder | ((kings & mid) != 0? 1 << (31 - hops) : 0);
+			int first = firstMiddle < 0? midIndex : firstMiddle;
+			
+			// A checker that reaches the last row is promoted and stops
+			int endRow = landIndex / 4;
+			if (!isKing && endRow == (isBlack? 7 : 0)) {
+				bestKey = addCapture(startIndex, landIndex, isKing, first, captured | mid, order, hops + 1,
+						base, bestKey, moves);
+				continue;
+			}
+			bestKey = addCaptures(startIndex, landIndex, isBlack, isKing, enemies & ~mid, (empty | mid) & ~land,
+					first, captured | mid, order, hops + 1, base, bestKey, moves);
+		}
+		if (!extended && hops > 0) {
+			bestKey = addCapture(startIndex, from, isKing, firstMiddle, captured, kingOrder, hops, base, bestKey, moves);
+		}
+		return bestKey;
+	}
+	
+	/**
+	 * Records a complete capture sequence if its precedence is at least the
+	 * best one found so far, dropping the recorded sequences with a lower one.
+	 *
+	 * @return the precedence of the sequences in the list.
+	 */
+	private long addCapture(int startIndex, int endIndex, boolean isKing, int firstMiddle, int captured,
+							int kingOrder, int hops, int base, long bestKey, MoveList moves) {
+		long key = (long) hops << 40 | (isKing? 1L : 0L) << 39
+				| (long) Integer.bitCount(captured & kings) << 32 | (kingOrder & 0xFFFFFFFFL);
+		if (key < bestKey) {
+			return bestKey;
+		}
+		if (key > bestKey) {
+			moves.truncate(base);
+		}
+		int move = Move.encode(startIndex, endIndex, firstMiddle, MoveType.SKIP);
+		if (!moves.contains(base, move, captured)) {
+			moves.add(move, captured);
+		}
+		return key;
+	}
+	
+	/**
+	 * Shifts every tile of a mask one step in a direction: down-right,
+	 * down-left, up-right or up-left.
+	 *
+	 * @param dir	the direction, from 0 to 3.
+	 * @param mask	the tiles to shift.
+	 * @return the shifted mask.
+	 */
+	private static int step(int dir, int mask) {
+		switch (dir) {
+			case 0: return downRight(mask);
+			case 1: return downLeft(mask);
+			case 2: return upRight(mask);
+			default: return upLeft(mask);
+		}
+	}
+	
+	/**
+	 * Gets the index of the tile where a skip lands, given the start and the
+	 * skipped tile.
+	 *
+	 * @param startIndex	the start index of the skip.
+	 * @param middleIndex	the index of the skipped tile.
+	 * @return the index of the landing tile, or -1 if the two tiles are not
+	 * diagonal neighbours or the landing tile is outside the board.
+	 */
+	public static int skipLanding(int startIndex, int middleIndex) {
+		if (!isValidIndex(startIndex) || !isValidIndex(middleIndex)) {
+			return -1;
+		}
+		int mid = 1 << middleIndex;
+		for (int dir = 0; dir < 4; dir++) {
+			if (step(dir, 1 << startIndex) == mid) {
+				int land = step(dir, mid);
+				return land == 0? -1 : Integer.numberOfTrailingZeros(land);
+			}
+		}
+		return -1;
+	}
+	
+	/**
+	 * Gets the index of the tile between the start and the end of a skip,
+	 * without creating any point.
+	 *
+	 * @param startIndex	the start index of the skip.
+	 * @param endIndex		the end index of the skip.
+	 * @return the index of the middle tile, or -1 if the two tiles are not
+	 * two diagonal steps apart.
+	 * @see #middle(int, int)
+	 */
+	public static int skipMiddle(int startIndex, int endIndex) {
+		if (!isValidIndex(startIndex) || !isValidIndex(endIndex)) {
+			return -1;
+		}
+		int start = 1 << startIndex, end = 1 << endIndex;
+		int mid;
+		if (downRight(mid = downRight(start)) == end || downLeft(mid = downLeft(start)) == end
+				|| upRight(mid = upRight(start)) == end || upLeft(mid = upLeft(start)) == end) {
+			return Integer.numberOfTrailingZeros(mid);
+		}
+		return -1;
+	}
+	
+	/**
+	 * Shifts every tile of a mask one step down-left (towards x - 1, y + 1).
+	 * Tiles that would leave the board are dropped.
+	 *
+	 * @param mask	the tiles to shift.
+	 * @return the shifted mask.
+	 */
+	public static int downLeft(int mask) {
+		return ((mask & EVEN_ROWS) << 4) | ((mask & ODD_ROWS & ~LEFT_EDGE) << 3);
+	}
+	
+	/**
+	 * Shifts every tile of a mask one step down-right (towards x + 1, y + 1).
+	 * Tiles that would leave the board are dropped.
+	 *
+	 * @param mask	the tiles to shift.
+	 * @return the shifted mask.
+	 */
+	public static int downRight(int mask) {
+		return ((mask & EVEN_ROWS & ~RIGHT_EDGE) << 5) | ((mask & ODD_ROWS) << 4);
+	}
+	
+	/**
+	 * Shifts every tile of a mask one step up-left (towards x - 1, y - 1).
+	 * Tiles that would leave the board are dropped.
+	 *
+	 * @param mask	the tiles to shift.
+	 * @return the shifted mask.
+	 */
+	public static int upLeft(int mask) {
+		return ((mask & EVEN_ROWS) >>> 4) | ((mask & ODD_ROWS & ~LEFT_EDGE) >>> 5);
+	}
+	
+	/**
+	 * Shifts every tile of a mask one step up-right (towards x + 1, y - 1).
+	 * Tiles that would leave the board are dropped.
+	 *
+	 * @param mask	the tiles to shift.
+	 * @return the shifted mask.
+	 */
+	public static int upRight(int mask) {
+		return ((mask & EVEN_ROWS & ~RIGHT_EDGE) >>> 3) | ((mask & ODD_ROWS) >>> 4);
+	}
+	
+	/**
+	 * Converts a bitboard to the list of points of its tiles, in index order.
+	 *
+	 * @param mask	the tiles to convert.
+	 * @return the list of points, empty if the mask is 0.
+	 */
+	private static List<Point> toPoints(int mask) {
+		List<Point> points = new ArrayList<>(Integer.bitCount(mask));
+		while (mask != 0) {
+			points.add(toPoint(Integer.numberOfTrailingZeros(mask)));
+			mask &= mask - 1;
+		}
+		return points;
 	}
 	
 	/**
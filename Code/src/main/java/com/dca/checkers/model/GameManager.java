@@ -1,20 +1,30 @@
 package com.dca.checkers.model;
 
+import com.dca.checkers.monitor.GameEvent;
+import com.dca.checkers.monitor.GameManagerMXBean;
+import com.dca.checkers.monitor.Monitoring;
+import com.dca.checkers.monitor.MoveMetrics;
+import com.dca.checkers.monitor.TurnEvent;
 import com.dca.checkers.ui.CheckerBoard;
 import com.dca.checkers.ui.OptionPanel;
 
+import javax.management.ObjectName;
 import java.awt.*;
 import java.lang.reflect.Array;
 import java.text.SimpleDateFormat;
-import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Date;
-import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
 
 /**
  * The {@code GameManager} represents a sort of referee for a Checker game.
  * It is the joint point between the UI and logic part of the application and it runs on its dedicated thread.
  */
-public class GameManager extends Thread {
+public class GameManager extends Thread implements GameManagerMXBean {
+	
+	/** Number of game managers created, to name their MBeans. */
+	private static final AtomicInteger INSTANCES = new AtomicInteger();
 	
 	/**
 	 * Flag that tells if the current game is a simulation (true) or not (false). In other words, no UI update is
@@ -40,6 +50,26 @@ public class GameManager extends Thread {
 	 */
 	private Player player2;
 	
+	/**
+	 * Creates the instances of player 1 for the games of a simulation.
+	 */
+	private Supplier<Player> player1Factory;
+	
+	/**
+	 * Creates the instances of player 2 for the games of a simulation.
+	 */
+	private Supplier<Player> player2Factory;
+	
+	/**
+	 * Number of games of a simulation played at the same time.
+	 */
+	private int simulationThreads = 1;
+	
+	/**
+	 * Flag that tells if the players of a simulation swap colors at every game.
+	 */
+	private boolean alternateColors;
+	
 	/**
 	 * Board boardUI reference
 	 */
@@ -53,7 +83,7 @@ public class GameManager extends Thread {
 	/**
 	 * Tells if game is paused
 	 */
-	private boolean isPaused;
+	private volatile boolean isPaused;
 	
 	/**
 	 * Tells if game is ready to start
@@ -63,7 +93,7 @@ public class GameManager extends Thread {
 	/**
 	 * Tells if game is on going
 	 */
-	private boolean isOnGoing;
+	private volatile boolean isOnGoing;
 	
 	/**
 	 * Tells if game is over
@@ -78,12 +108,38 @@ public class GameManager extends Thread {
 	/**
 	 * The amount of milliseconds before a computer player takes a move.
 	 */
-	private int AIDelay = 1000;
+	private volatile int AIDelay = 1000;
+	
+	/**
+	 * The tournament of the running simulation, null if none.
+	 */
+	private volatile Tournament tournament;
+	
+	/**
+	 * Number of games over, for the games managed by the user interface.
+	 */
+	private volatile long gamesCompleted;
+	
+	/**
+	 * The times of the moves of the AI players, since the last reset.
+	 */
+	private final MoveMetrics moveMetrics = new MoveMetrics();
 	
 	/**
-	 * The history of the game
+	 * The history of the game, each game state packed in two longs
+	 * (see {@link GameState#getPackedPieces()} and {@link GameState#getPackedInfo()}).
 	 */
-	private List<GameState> history;
+	private long[] history;
+	
+	/**
+	 * Moves of the AI playing as player 1 in the current game.
+	 */
+	private Tournament.PlayerStats player1Stats = new Tournament.PlayerStats();
+	
+	/**
+	 * Moves of the AI playing as player 2 in the current game.
+	 */
+	private Tournament.PlayerStats player2Stats = new Tournament.PlayerStats();
 	
 	/**
 	 * Track the current game state position in history
@@ -110,18 +166,44 @@ public class GameManager extends Thread {
 		this.isOver = false;
 		this.curHistoryIndex = 0;
 		this.lastIndexValid = 0;
-		this.history = new ArrayList<>();
-		this.history.add(this.gameState.copy());
+		this.history = new long[2 * 64];
+		saveHistory(0);
 		this.isSimulation = false;
 		this.numMatch = 0;
 		//Set UI
 		updateUI();
 	}
 	
+	/**
+	 * Creates a manager that simulates games between two players, one after another on the same instances.
+	 *
+	 * @param numMatch the number of games to simulate.
+	 * @param p1       the player of the black checkers.
+	 * @param p2       the player of the white checkers.
+	 */
 	public GameManager(int numMatch, Player p1, Player p2) {
+		this(numMatch, () -> p1, () -> p2, 1, false);
+	}
+	
+	/**
+	 * Creates a manager that simulates games between two players, playing some of them at the same time.
+	 * Every game is played by new instances of the players.
+	 *
+	 * @param numMatch        the number of games to simulate.
+	 * @param p1Factory       creates the instances of player 1.
+	 * @param p2Factory       creates the instances of player 2.
+	 * @param threads         the number of games played at the same time.
+	 * @param alternateColors flag that tells if the players swap colors at every game.
+	 */
+	public GameManager(int numMatch, Supplier<Player> p1Factory, Supplier<Player> p2Factory, int threads,
+	                   boolean alternateColors) {
 		this.gameState = new GameState();
-		this.player1 = p1;
-		this.player2 = p2;
+		this.player1 = p1Factory.get();
+		this.player2 = p2Factory.get();
+		this.player1Factory = p1Factory;
+		this.player2Factory = p2Factory;
+		this.simulationThreads = threads;
+		this.alternateColors = alternateColors;
 		this.boardUI = null;
 		this.opt = null;
 		this.isPaused = false;
@@ -138,6 +220,7 @@ public class GameManager extends Thread {
 	@Override
 	public void run() {
 		System.out.println("Running game manager thread");
+		ObjectName mbean = Monitoring.register("type=GameManager,name=" + INSTANCES.incrementAndGet(), this);
 		
 		if (!isSimulation) { //Current game managed is not a simulation!
 			while (true) {
@@ -147,6 +230,7 @@ public class GameManager extends Thread {
 			}
 		} else { //Current game managed is a simulation!
 			handleSimulation();
+			Monitoring.unregister(mbean);
 		}
 		
 		
@@ -161,81 +245,32 @@ public class GameManager extends Thread {
 	}
 	
 	/**
-	 * Handle a simulation game (isSimulation = true).
+	 * Handle a simulation game (isSimulation = true): the games are played by a {@link Tournament}.
 	 */
 	private void handleSimulation() {
-		int gameDone = 0;
-		Player currentPlayer;
-		long p1MoveAvg = 0, p1CntMoves = 0, p1Wins = 0, p1DepthAvg = 0;
-		long p2MoveAvg = 0, p2CntMoves = 0, p2Wins = 0, p2DepthAvg = 0;
-		long cntDraw = 0;
-		long startTimeSimulation = System.nanoTime();
-		while (gameDone < numMatch) {
-			gameDone++;
-			System.out.print("Game[Game:" + gameDone + "/" + numMatch + "]: ");
-			while (!gameState.isGameOver()) {
-				currentPlayer = getCurrentPlayer();
-				long startTime = System.nanoTime();
-				currentPlayer.updateGame(gameState);
-				long stopTime = System.nanoTime();
-				if (gameState.isP1Turn()) {
-					p1CntMoves++;
-					p1DepthAvg += currentPlayer.getLastMaxDepthReached();
-					p1MoveAvg += stopTime - startTime;
-				} else {
-					p2CntMoves++;
-					p2DepthAvg += currentPlayer.getLastMaxDepthReached();
-					p2MoveAvg += stopTime - startTime;
-				}
-				
-			}
-			//Game over, do final report of the last game
-			String strResult = "";
-			MatchResult res = gameState.getResult();
-			switch (res) {
-				case P1_WIN:
-					strResult = "P1 WIN";
-					p1Wins++;
-					break;
-				case P2_WIN:
-					strResult = "P2 WIN";
-					p2Wins++;
-					break;
-				case DRAW:
-					strResult = "DRAW";
-					cntDraw++;
-					break;
-			}
-			System.out.println(strResult);
-			gameState.restart();
+		Tournament tournament = new Tournament(player1Factory, player2Factory, numMatch);
+		tournament.setThreads(simulationThreads);
+		tournament.setAlternateColors(alternateColors);
+		tournament.setMoveListener(move -> moveMetrics.record(move.getTime()));
+		tournament.setListener(record -> {
+			String strResult = record.getWinner() == 1 ? "P1 WIN" : record.getWinner() == 2 ? "P2 WIN" : "DRAW";
+			System.out.println("Game[Game:" + (record.getGameIndex() + 1) + "/" + numMatch + "]: " + strResult);
+		});
+		this.tournament = tournament;
+		try {
+			Tournament.Report report = tournament.run();
+			report.print(System.out, player1.getClass().getSimpleName(), player2.getClass().getSimpleName());
+		} catch (InterruptedException e) {
+			System.err.println("The simulation has been interrupted.\n");
+			e.printStackTrace();
 		}
-		//Final report of all games
-		System.out.println("*** FINAL REPORT ***:");
-		System.out.println("Player 1: " + player1.getClass().getSimpleName());
-		System.out.println("Player 2: " + player2.getClass().getSimpleName());
-		System.out.println("Number of games simulated: " + numMatch);
-		System.out.println("Time required to simulate all the games: " + (System.nanoTime() - startTimeSimulation));
-		System.out.println("Draws: " + cntDraw);
-		System.out.println("== P1 ==");
-		System.out.println("  - Average time for a move: " + p1MoveAvg / p1CntMoves);
-		System.out.println("  - Average max depth for a move: " + p1DepthAvg / p1CntMoves);
-		System.out.println("  - Total number of player moves: " + p1CntMoves);
-		System.out.println("  - Wins: " + p1Wins);
-		System.out.println("  - Defeats: " + p2Wins);
-		System.out.println("========");
-		
-		System.out.println("== P2 ==");
-		System.out.println("  - Average time for a move: " + p2MoveAvg / p2CntMoves);
-		System.out.println("  - Average max depth for a move: " + p2DepthAvg / p2CntMoves);
-		System.out.println("  - Total number of player moves: " + p2CntMoves);
-		System.out.println("  - Wins: " + p2Wins);
-		System.out.println("  - Defeats: " + p1Wins);
-		System.out.println("========");
 	}
 	
 	/** Handle the game until it's over. */
 	public void handleGameplay() {
 		Player currentPlayer;
+		player1Stats = new Tournament.PlayerStats();
+		player2Stats = new Tournament.PlayerStats();
 		while (!gameState.isGameOver()) {
 			//If game is paused wait
 			waitResume();
@@ -253,28 +288,63 @@ public class GameManager extends Thread {
 					e.printStackTrace();
 				}
 			}
+			GamePhase phase = GamePhase.of(gameState.getBoard());
+			boolean isP1Turn = gameState.isP1Turn();
+			TurnEvent turn = new TurnEvent();
+			turn.begin();
+			long startTime = System.nanoTime();
 			currentPlayer.updateGame(gameState);
+			long moveTime = System.nanoTime() - startTime;
+			if (!currentPlayer.isHuman()) {
+				Tournament.PlayerStats stats = isP1Turn ? player1Stats : player2Stats;
+				SearchStats search = currentPlayer.getLastSearchStats();
+				stats.addMove(moveTime, currentPlayer.getLastMaxDepthReached(), phase, search);
+				moveMetrics.record(moveTime);
+				if (search.getNodes() > 0) writeToConsole((isP1Turn ? "Player 1: " : "Player 2: ") + search);
+			}
 			waitPlayerChoice(currentPlayer);
-			if (currentPlayer.hasMoved()) addHistory(gameState.copy());
+			if (currentPlayer.hasMoved()) addHistory();
+			if (turn.shouldCommit()) {
+				turn.player = isP1Turn ? 1 : 2;
+				turn.human = currentPlayer.isHuman();
+				turn.phase = phase.name();
+				turn.moved = currentPlayer.hasMoved();
+				turn.commit();
+			}
 			updateUI();
 		}
 		gameOver();
 	}
 	
 	/**
-	 * Add the game state g to the game history.
-	 * @param g the game state to save in history.
-	 * */
-	private void addHistory(GameState g) {
-		if (curHistoryIndex < history.size()) {
-			history.add(++curHistoryIndex, g);
-		} else { //curHistoryIndex == history.size()
-			history.add(g);
-			curHistoryIndex++;
-		}
+	 * Add the current game state to the game history, after the current
+	 * position: the states that had been undone are no more valid.
+	 */
+	private void addHistory() {
+		saveHistory(++curHistoryIndex);
 		lastIndexValid = curHistoryIndex;
 	}
 	
+	/**
+	 * Save the current game state, packed in two longs, at a position of the history.
+	 * @param index the position in history.
+	 */
+	private void saveHistory(int index) {
+		if (2 * index + 1 >= history.length) {
+			history = Arrays.copyOf(history, history.length * 2);
+		}
+		history[2 * index] = gameState.getPackedPieces();
+		history[2 * index + 1] = gameState.getPackedInfo();
+	}
+	
+	/**
+	 * Restore the current game state from a position of the history.
+	 * @param index the position in history.
+	 */
+	private void loadHistory(int index) {
+		gameState.setPackedState(history[2 * index], history[2 * index + 1]);
+	}
+	
 	/**
 	 * Check if it's currently possible to perform an undo.
 	 *
@@ -298,7 +368,8 @@ public class GameManager extends Thread {
 	 */
 	public void redo() {
 		if (redoIsPossible()) {
-			gameState.setGameState(history.get(++curHistoryIndex).getGameState());
+			loadHistory(++curHistoryIndex);
+			GameEvent.emit(GameEvent.REDO, curHistoryIndex, null);
 			updateUI();
 		}
 		
@@ -309,7 +380,8 @@ public class GameManager extends Thread {
 	 */
 	public void undo() {
 		if (undoIsPossible()) {
-			gameState.setGameState(history.get(--curHistoryIndex).getGameState());
+			loadHistory(--curHistoryIndex);
+			GameEvent.emit(GameEvent.UNDO, curHistoryIndex, null);
 			updateUI();
 		}
 	}
@@ -432,8 +504,7 @@ public class GameManager extends Thread {
 		this.isOver = false;
 		this.gameState.restart();
 		this.curHistoryIndex = 0;
-		this.history = new ArrayList<>();
-		this.history.add(gameState.copy());
+		saveHistory(0);
 		this.lastIndexValid = 0;
 		updateUI();
 	}
@@ -443,6 +514,7 @@ public class GameManager extends Thread {
 	 */
 	synchronized public void startClick() {
 		writeToConsole("Game started.");
+		GameEvent.emit(GameEvent.START, curHistoryIndex, null);
 		this.isPaused = false;
 		this.isReadyToStart = false;
 		this.isOnGoing = true;
@@ -457,6 +529,7 @@ public class GameManager extends Thread {
 	 */
 	synchronized public void resumeClick() {
 		writeToConsole("Game resumed.");
+		GameEvent.emit(GameEvent.RESUME, curHistoryIndex, null);
 		this.isPaused = false;
 		this.isReadyToStart = false;
 		this.isOnGoing = true;
@@ -471,6 +544,7 @@ public class GameManager extends Thread {
 	 */
 	synchronized public void pauseClick() {
 		writeToConsole("Game pausing...");
+		GameEvent.emit(GameEvent.PAUSE, curHistoryIndex, null);
 		this.isPaused = true;
 		this.isReadyToStart = false;
 		this.isOnGoing = false;
@@ -487,6 +561,10 @@ public class GameManager extends Thread {
 	 */
 	synchronized public void gameOver() {
 		writeToConsole("Game over.");
+		GameEvent.emit(GameEvent.END, curHistoryIndex, gameState.getResult().name());
+		gamesCompleted++;
+		printMoveTimes("Player 1", player1Stats);
+		printMoveTimes("Player 2", player2Stats);
 		this.isPaused = false;
 		this.isReadyToStart = false;
 		this.isOnGoing = false;
@@ -494,6 +572,19 @@ public class GameManager extends Thread {
 		updateUI();
 	}
 	
+	/**
+	 * Print the distribution of the move times of an AI in the last game.
+	 * @param name the name of the player.
+	 * @param stats the moves of the player.
+	 */
+	private void printMoveTimes(String name, Tournament.PlayerStats stats) {
+		if (stats.getMoves() == 0) return;
+		System.out.println(name + " move times: " + stats.getLatency().toMillisString());
+		for (GamePhase phase : GamePhase.values()) {
+			System.out.println("  - " + phase + ": " + stats.getLatency(phase).toMillisString());
+		}
+	}
+	
 	/** Setup UI for OnGoing state. */
 	synchronized private void setUIOnGoing() {
 		opt.cmbPlayer1Type.setEnabled(false);
@@ -560,4 +651,52 @@ public class GameManager extends Thread {
 		AIDelay = value;
 	}
 	
+	@Override
+	public int getGamesInProgress() {
+		Tournament tournament = this.tournament;
+		if (tournament != null) return tournament.getGamesInProgress();
+		return isOnGoing || isPaused ? 1 : 0;
+	}
+	
+	@Override
+	public long getGamesCompleted() {
+		Tournament tournament = this.tournament;
+		return tournament != null ? tournament.getGamesCompleted() : gamesCompleted;
+	}
+	
+	@Override
+	public long getMoves() {
+		return moveMetrics.getMoves();
+	}
+	
+	@Override
+	public double getMovesPerSecond() {
+		return moveMetrics.getMovesPerSecond();
+	}
+	
+	@Override
+	public double getAverageMoveLatency() {
+		return moveMetrics.getAverageMillis();
+	}
+	
+	@Override
+	public double getP99MoveLatency() {
+		return moveMetrics.getPercentileMillis(99);
+	}
+	
+	@Override
+	public int getAIDelay() {
+		return AIDelay;
+	}
+	
+	@Override
+	public void setAIDelay(int millis) {
+		setDelay(Math.max(0, millis));
+	}
+	
+	@Override
+	public void resetStatistics() {
+		moveMetrics.reset();
+	}
+	
 }
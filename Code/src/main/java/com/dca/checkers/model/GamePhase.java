@@ -0,0 +1,31 @@
+
+package com.dca.checkers.model;
+
+/**
+ * The {@code GamePhase} enum represents the phases of a game, told apart by
+ * the number of pieces left on the board.
+ */
+public enum GamePhase {
+	OPENING,
+	MIDDLEGAME,
+	ENDGAME;
+	
+	/** Minimum number of pieces on the board in the opening. */
+	private static final int OPENING_PIECES = 20;
+	
+	/** Maximum number of pieces on the board in the endgame. */
+	private static final int ENDGAME_PIECES = 8;
+	
+	/**
+	 * Get the phase of a game from its board.
+	 *
+	 * @param board the board of the game.
+	 * @return the phase of the game.
+	 */
+	public static GamePhase of(Board board) {
+		int pieces = Integer.bitCount(board.getBlack() | board.getWhite());
+		if (pieces >= OPENING_PIECES) return OPENING;
+		if (pieces <= ENDGAME_PIECES) return ENDGAME;
+		return MIDDLEGAME;
+	}
+}
@@ -4,6 +4,7 @@ package com.dca.checkers.model;
 
 import java.awt.*;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 /**
@@ -37,6 +38,34 @@ public class GameState implements State {
 	 */
 	private boolean draw;
 	
+	/** Number of ints saved for each move applied with {@link #apply(int, int)}. */
+	private static final int UNDO_ENTRY_SIZE = 4;
+	
+	/**
+	 * Snapshots taken by {@link #apply(int, int)} and restored by {@link #undo(int)}:
+	 * black, white and kings bitboards followed by the packed flags of the state.
+	 * Created on the first apply and reused afterwards.
+	 */
+	private int[] undoStack;
+	
+	/** Board Zobrist keys saved by {@link #apply(int, int)}, one for each snapshot. */
+	private long[] undoKeys;
+	
+	/** Number of snapshots currently saved in {@link #undoStack}. */
+	private int undoSize;
+	
+	/**
+	 * The legal moves of the current state, generated on first request and
+	 * kept until the state changes (only valid if {@link #movesCached} is set).
+	 */
+	private final MoveList legalMoves = new MoveList();
+	
+	/** Flag that tells if {@link #legalMoves} holds the moves of the current state. */
+	private boolean movesCached;
+	
+	/** Immutable view of the legal moves one step at a time, built on first request. */
+	private List<Move> allMoves;
+	
 	public GameState() {
 		restart();
 	}
@@ -45,6 +74,18 @@ public class GameState implements State {
 		setGameState(state);
 	}
 	
+	/**
+	 * Creates a game state from its packed form.
+	 *
+	 * @param pieces the pieces, as returned by {@link #getPackedPieces()}.
+	 * @param info   the kings and the other info, as returned by {@link #getPackedInfo()}.
+	 * @see #setPackedState(long, long)
+	 */
+	public GameState(long pieces, long info) {
+		this.board = new Board();
+		setPackedState(pieces, info);
+	}
+	
 	public GameState(Board board, boolean isP1Turn, int skipIndex) {
 		this.board = (board == null)? new Board() : board;
 		this.isP1Turn = isP1Turn;
@@ -64,6 +105,10 @@ public class GameState implements State {
 		g.skipIndex = skipIndex;
 		g.cntMovesFromLastSkip = cntMovesFromLastSkip;
 		g.draw = draw;
+		if (movesCached) {
+			g.legalMoves.addAll(legalMoves);
+			g.movesCached = true;
+		}
 		return g;
 	}
 	
@@ -76,6 +121,8 @@ public class GameState implements State {
 		this.skipIndex = -1;
 		this.cntMovesFromLastSkip = 0;
 		this.draw = false;
+		this.undoSize = 0;
+		invalidateMoves();
 	}
 	
 	/**
@@ -104,25 +151,177 @@ public class GameState implements State {
 	public boolean move(int startIndex, int endIndex) {
 		
 		// Validate the move
-		Move m = getMove(startIndex, endIndex);
-		if (m == null) //Invalid move!
+		int m = findMove(startIndex, endIndex);
+		if (m < 0) //Invalid move!
 			return false;
 		
+		makeMove(m);
+		return true;
+	}
+	
+	/**
+	 * Plays a whole turn given a move generated by {@link #generateMoves(MoveList)}
+	 * for the current state: a normal move or a complete capture sequence.
+	 * <p>
+	 * A king may capture along different routes with the same start, first
+	 * jump and end: they share the encoding, and the first one generated is
+	 * played. Use {@link #playMove(int, int)} to play a specific route.
+	 *
+	 * @param move the encoded move to play.
+	 * @return true if and only if the move is legal and has been played.
+	 */
+	public boolean playMove(int move) {
+		MoveList moves = getLegalMoves();
+		for (int i = 0; i < moves.size(); i++) {
+			if (moves.get(i) == move) {
+				makeMove(move, moves.getCaptured(i));
+				return true;
+			}
+		}
+		return false;
+	}
+	
+	/**
+	 * Plays a whole turn given a move generated by {@link #generateMoves(MoveList)}
+	 * for the current state together with its captured tiles, so that the
+	 * capture sequence played is exactly the one generated.
+	 *
+	 * @param move     the encoded move to play.
+	 * @param captured the mask of the tiles captured by the move, as kept in the list.
+	 * @return true if and only if the move is legal and has been played.
+	 */
+	public boolean playMove(int move, int captured) {
+		MoveList moves = getLegalMoves();
+		for (int i = 0; i < moves.size(); i++) {
+			if (moves.get(i) == move && moves.getCaptured(i) == captured) {
+				makeMove(move, captured);
+				return true;
+			}
+		}
+		return false;
+	}
+	
+	/**
+	 * Applies a move in place, saving what is needed to take it back with
+	 * {@link #undo(int)}. The move is a whole turn: the board, the turn, the
+	 * draw counter and king promotions are all updated as by a sequence of
+	 * {@link #move(int, int)}, but the move is not validated: it must be one
+	 * generated by {@link #generateMoves(MoveList)} for the current state,
+	 * with the captured tiles kept along in the list. Moves must be undone in
+	 * the reverse order they were applied.
+	 *
+	 * @param move     the encoded move to apply.
+	 * @param captured the mask of the tiles captured by the move.
+	 * @return the token to pass to {@link #undo(int)} to restore the state
+	 * that preceded this move.
+	 */
+	public int apply(int move, int captured) {
+		
+		// Save the current state
+		if (undoStack == null) {
+			undoStack = new int[64 * UNDO_ENTRY_SIZE];
+			undoKeys = new long[64];
+		} else if (undoSize == undoKeys.length) {
+			int[] grown = new int[undoStack.length * 2];
+			System.arraycopy(undoStack, 0, grown, 0, undoStack.length);
+			undoStack = grown;
+			long[] grownKeys = new long[undoKeys.length * 2];
+			System.arraycopy(undoKeys, 0, grownKeys, 0, undoKeys.length);
+			undoKeys = grownKeys;
+		}
+		int base = undoSize * UNDO_ENTRY_SIZE;
+		undoStack[base] = board.getBlack();
+		undoStack[base + 1] = board.getWhite();
+		undoStack[base + 2] = board.getKings();
+		undoStack[base + 3] = (isP1Turn ? 1 : 0) | (skipIndex + 1) << 1 | (draw ? 1 : 0) << 7 | cntMovesFromLastSkip << 8;
+		undoKeys[undoSize] = board.getKey();
+		
+		makeMove(move, captured);
+		return undoSize++;
+	}
+	
+	/**
+	 * Takes back the moves applied with {@link #apply(int, int)}, restoring exactly
+	 * the state that preceded the move that returned the token. Moves applied
+	 * after that one are taken back too.
+	 *
+	 * @param undoToken the token returned by {@link #apply(int, int)}.
+	 */
+	public void undo(int undoToken) {
+		if (undoToken < 0 || undoToken >= undoSize) {
+			return;
+		}
+		int base = undoToken * UNDO_ENTRY_SIZE;
+		board.setMasks(undoStack[base], undoStack[base + 1], undoStack[base + 2], undoKeys[undoToken]);
+		int flags = undoStack[base + 3];
+		this.isP1Turn = (flags & 1) != 0;
+		this.skipIndex = ((flags >>> 1) & 0b111111) - 1;
+		this.draw = ((flags >>> 7) & 1) != 0;
+		this.cntMovesFromLastSkip = flags >>> 8;
+		this.undoSize = undoToken;
+		invalidateMoves();
+	}
+	
+	/**
+	 * Updates the state with a whole turn that is known to be legal.
+	 *
+	 * @param m        the encoded move.
+	 * @param captured the mask of the tiles captured by the move.
+	 */
+	private void makeMove(int m, int captured) {
+		
+		// Make the move (the start and end tiles are the same if a king goes round)
+		int startIndex = Move.startOf(m), endIndex = Move.endOf(m);
+		byte id = board.get(startIndex);
+		this.board.set(startIndex, Board.EMPTY);
+		for (int c = captured; c != 0; c &= c - 1) {
+			this.board.set(Integer.numberOfTrailingZeros(c), Board.EMPTY);
+		}
+		this.board.set(endIndex, id);
+		
+		// Make the checker a king if necessary
+		int endRow = endIndex / 4;
+		if (endRow == 0 && id == Board.WHITE_CHECKER) {
+			this.board.set(endIndex, Board.WHITE_KING);
+		} else if (endRow == 7 && id == Board.BLACK_CHECKER) {
+			this.board.set(endIndex, Board.BLACK_KING);
+		}
+		
+		//Handle draw check
+		if (!draw) {//Draw not declared yet
+			if (hasKing()) {
+				if (Move.isSkip(m)) cntMovesFromLastSkip = 0;
+				else draw = (++cntMovesFromLastSkip) >= maxNumMovesForDraw;
+			}
+		}
+		this.isP1Turn = !isP1Turn;
+		this.skipIndex = -1;
+		invalidateMoves();
+	}
+	
+	/**
+	 * Updates the state with a single step (a normal move or one skip) that is
+	 * known to be legal. The turn doesn't change if the piece can skip again.
+	 *
+	 * @param m the encoded move.
+	 */
+	private void makeMove(int m) {
+		
 		// Make the move
-		Point middle = Board.middle(startIndex, endIndex);
-		int midIndex = Board.toIndex(middle);
+		int startIndex = Move.startOf(m), endIndex = Move.endOf(m);
+		int midIndex = Move.middleOf(m);
 		this.board.set(endIndex, board.get(startIndex));
 		this.board.set(midIndex, Board.EMPTY);
 		this.board.set(startIndex, Board.EMPTY);
 		
 		// Make the checker a king if necessary
-		Point end = Board.toPoint(endIndex);
+		int endRow = endIndex / 4;
 		int id = board.get(endIndex);
 		boolean switchTurn = false;
-		if (end.y == 0 && id == Board.WHITE_CHECKER) {
+		if (endRow == 0 && id == Board.WHITE_CHECKER) {
 			this.board.set(endIndex, Board.WHITE_KING);
 			switchTurn = true;
-		} else if (end.y == 7 && id == Board.BLACK_CHECKER) {
+		} else if (endRow == 7 && id == Board.BLACK_CHECKER) {
 			this.board.set(endIndex, Board.BLACK_KING);
 			switchTurn = true;
 		}
@@ -132,13 +331,13 @@ public class GameState implements State {
 		if (midValid) {
 			this.skipIndex = endIndex;
 		}
-		if (!midValid || board.copy().getPieceSkips(endIndex).isEmpty()) {
+		if (!midValid || board.getSkipTargets(endIndex) == 0) {
 			switchTurn = true;
 		}
 		//Handle draw check
 		if (!draw) {//Draw not declared yet
 			if (hasKing()) {
-				if (m.getType() == MoveType.SKIP) cntMovesFromLastSkip = 0;
+				if (Move.isSkip(m)) cntMovesFromLastSkip = 0;
 				else draw = (++cntMovesFromLastSkip) >= maxNumMovesForDraw;
 			}
 		}
@@ -146,8 +345,7 @@ public class GameState implements State {
 			this.isP1Turn = !isP1Turn;
 			this.skipIndex = -1;
 		}
-		
-		return true;
+		invalidateMoves();
 	}
 	
 	/**
@@ -159,14 +357,47 @@ public class GameState implements State {
 	}
 	
 	/**
-	 * Get the move (startIndex, endIndex) if exists.
+	 * Get the move (startIndex, endIndex) if it is legal in the current state,
+	 * checking the board masks directly instead of generating all the moves.
+	 *
+	 * @param startIndex the start index of the move.
+	 * @param endIndex   the end index of the move.
+	 * @return the encoded move, or -1 if the move is not legal.
 	 */
-	private Move getMove(int startIndex, int endIndex) {
-		List<Move> moves = getAllMoves();
-		for (Move m : moves) {
-			if (m.getStartIndex() == startIndex && m.getEndIndex() == endIndex) return m;
+	private int findMove(int startIndex, int endIndex) {
+		if (!Board.isValidIndex(startIndex) || !Board.isValidIndex(endIndex)) {
+			return -1;
+		}
+		
+		// A skip in progress must be continued by the same piece
+		if (skipIndex >= 0 && startIndex != skipIndex) {
+			return -1;
+		}
+		int own = isP1Turn ? board.getBlack() : board.getWhite();
+		if (skipIndex < 0 && (own & (1 << startIndex)) == 0) {
+			return -1;
+		}
+		
+		// Skips are mandatory, and must begin a capture sequence with the highest precedence
+		int end = 1 << endIndex;
+		if (skipIndex >= 0 || board.getJumpers(isP1Turn) != 0) {
+			if ((board.getSkipTargets(startIndex) & end) == 0) {
+				return -1;
+			}
+			int middle = Board.skipMiddle(startIndex, endIndex);
+			MoveList sequences = getLegalMoves();
+			for (int i = 0; i < sequences.size(); i++) {
+				int m = sequences.get(i);
+				if (Move.startOf(m) == startIndex && Move.middleOf(m) == middle) {
+					return Move.encode(startIndex, endIndex, middle, MoveType.SKIP);
+				}
+			}
+			return -1;
+		}
+		if ((board.getMoveTargets(startIndex) & end) == 0) {
+			return -1;
 		}
-		return null;
+		return Move.encode(startIndex, endIndex, -1, MoveType.NORMAL);
 	}
 	
 	/**
@@ -174,14 +405,18 @@ public class GameState implements State {
 	 * @return true if at least one king is present on the board, otherwise false.
 	 */
 	public boolean hasKing() {
-		List<Point> pieces = getPlayerPieces(true);
-		pieces.addAll(getPlayerPieces(false));
-		int id;
-		for (Point p : pieces) {
-			id = board.get(Board.toIndex(p));
-			if (id == Board.WHITE_KING || id == Board.BLACK_KING) return true;
-		}
-		return false;
+		return board.getKings() != 0;
+	}
+	
+	/**
+	 * Counts the tiles with the specified ID on the current board, without
+	 * copying it (see {@link Board#count(byte)}).
+	 *
+	 * @param id the ID to count.
+	 * @return the number of tiles with the ID, 0 if the ID is not valid.
+	 */
+	public int count(byte id) {
+		return board.count(id);
 	}
 	
 	/**
@@ -246,11 +481,14 @@ public class GameState implements State {
 	
 	/**
 	 * Check if the current player can move. I other words, he must have at least one piece on the board
-	 * and at least one of them must have one possible move.
+	 * and at least one of them must have one possible move. The board masks are probed directly, unless
+	 * the legal moves of the state have already been generated.
 	 * @return true if the current player can move: false othrwise.
 	 */
 	private boolean currentPlayerCanMove() {
-		return !getAllMoves().isEmpty();
+		if (movesCached) return !legalMoves.isEmpty();
+		if (skipIndex >= 0) return board.getSkipTargets(skipIndex) != 0;
+		return board.hasAnyMove(isP1Turn);
 //		//Get current player pieces
 //		List<Point> pieces = getPlayerPieces(isP1Turn);
 //
@@ -281,12 +519,21 @@ public class GameState implements State {
 	 * @return true if the move is legal according to the rules of checkers.
 	 */
 	public boolean isValidMove(int startIndex, int endIndex) {
-		List<Move> allMoves = getAllMoves();
-		for (Move m : allMoves)
-			if(m.getStartIndex() == startIndex && m.getEndIndex() == endIndex) return true;
-		
-		return false;
-		//return board.isValidMove(isP1Turn(), startIndex, endIndex, getSkipIndex());
+		return findMove(startIndex, endIndex) >= 0;
+	}
+	
+	/**
+	 * Gets the Zobrist key of the current state: the pieces on the board, the
+	 * side to move and the tile of a skip in progress. The board part is kept
+	 * up to date by every change of a tile, and the other two are single XORs,
+	 * so the key is always available in constant time after {@link #move(int, int)},
+	 * {@link #apply(int, int)}, {@link #undo(int)} and {@link #setP1Turn(boolean)}.
+	 *
+	 * @return the 64-bit key of the state.
+	 * @see Zobrist
+	 */
+	public long getKey() {
+		return board.getKey() ^ Zobrist.turn(isP1Turn) ^ Zobrist.skip(skipIndex);
 	}
 	
 	/**
@@ -303,61 +550,92 @@ public class GameState implements State {
 	 */
 	public void setP1Turn(boolean isP1Turn) {
 		this.isP1Turn = isP1Turn;
+		invalidateMoves();
 	}
 	
 	/**
-	 * Gets all the available moves and skips for the current player.
+	 * Gets all the available moves and skips for the current player, one step
+	 * at a time as they are played with {@link #move(int, int)}: for a capture
+	 * sequence, only its first skip. The list is computed once for each state
+	 * and shared by the following calls until the state changes.
 	 *
-	 * @return a list of valid moves that the player can make.
+	 * @return an unmodifiable list of valid moves that the player can make.
+	 * @see #generateMoves(MoveList)
 	 */
 	public List<Move> getAllMoves() {
-		
-		// The next move needs to be a skip
-		if (getSkipIndex() >= 0) {
-			
-			List<Move> moves = new ArrayList<>();
-			List<Point> skips = getSkips(getSkipIndex());
-			for (Point end : skips) {
-				moves.add(new Move(getSkipIndex(), Board.toIndex(end), MoveType.SKIP));
-			}
-			
-			return moves;
+		if (allMoves != null && movesCached) {
+			return allMoves;
 		}
-		
-		// Get the checkers
-		List<Point> checkers = new ArrayList<>();
-		Board b = getBoard();
-		if (isP1Turn()) {
-			checkers.addAll(b.find(Board.BLACK_CHECKER));
-			checkers.addAll(b.find(Board.BLACK_KING));
-		} else {
-			checkers.addAll(b.find(Board.WHITE_CHECKER));
-			checkers.addAll(b.find(Board.WHITE_KING));
-		}
-		
-		// Determine if there are any skips
-		List<Move> moves = new ArrayList<>();
-		for (Point checker : checkers) {
-			int index = Board.toIndex(checker);
-			List<Point> skips = getSkips(index);
-			for (Point end : skips) {
-				Move m = new Move(index, Board.toIndex(end), MoveType.SKIP);
-				moves.add(m);
+		MoveList encoded = getLegalMoves();
+		List<Move> moves = new ArrayList<>(encoded.size());
+		for (int i = 0; i < encoded.size(); i++) {
+			int m = encoded.get(i);
+			Move move = Move.decode(m);
+			if (Move.isSkip(m)) {
+				move.setEndIndex(Board.skipLanding(Move.startOf(m), Move.middleOf(m)));
 			}
+			if (!moves.contains(move)) moves.add(move);
 		}
-		
-		if (moves.isEmpty()) { //No skips found
-			// There are no skips, add the regular moves
-			for (Point checker : checkers) {
-				int index = Board.toIndex(checker);
-				List<Point> movesEnds = b.getPieceMoves(index);
-				for (Point end : movesEnds) {
-					moves.add(new Move(index, Board.toIndex(end), MoveType.NORMAL));
-				}
-			}
+		allMoves = Collections.unmodifiableList(moves);
+		return allMoves;
+	}
+	
+	/**
+	 * Fills a list with all the available moves for the current player,
+	 * encoded as integers (see {@link Move#encode(int, int, int, MoveType)}).
+	 * Each move is a whole turn: a capture sequence is a single move, with its
+	 * captured tiles kept in the list (see {@link Board#generateCaptures(int, MoveList)}).
+	 * The list is cleared first and reused, so that a search can generate
+	 * moves without allocating any object. The moves are generated once for
+	 * each state and copied to the list by the following calls.
+	 *
+	 * @param moves the list to fill.
+	 * @see #apply(int, int)
+	 */
+	public void generateMoves(MoveList moves) {
+		moves.clear();
+		moves.addAll(getLegalMoves());
+	}
+	
+	/**
+	 * Gets the legal moves of the current state, generating them only if the
+	 * state has changed since the last request.
+	 *
+	 * @return the cached moves, not to be modified.
+	 */
+	private MoveList getLegalMoves() {
+		if (movesCached) {
+			return legalMoves;
 		}
+		legalMoves.clear();
+		allMoves = null;
 		
-		return moves;
+		// The sequence in progress needs to be completed
+		if (skipIndex >= 0) {
+			board.generateCaptures(skipIndex, legalMoves);
+		} else {
+			board.generateMoves(isP1Turn, legalMoves);
+		}
+		movesCached = true;
+		return legalMoves;
+	}
+	
+	/**
+	 * Forgets the cached legal moves, to be called whenever the state changes.
+	 */
+	private void invalidateMoves() {
+		movesCached = false;
+		allMoves = null;
+	}
+	
+	/**
+	 * Check if the current player has to capture: either a multi-jump is in
+	 * progress or one of its pieces can skip (captures are mandatory).
+	 *
+	 * @return true if the next move is a skip, false if the position is quiet.
+	 */
+	public boolean hasCapture() {
+		return skipIndex >= 0 || board.getJumpers(isP1Turn) != 0;
 	}
 	
 	/**
@@ -366,9 +644,9 @@ public class GameState implements State {
 	 * @return a list of valid moves that the player can make with piece in startIndex.
 	 */
 	public List<Move> getAllMoves(int startIndex) {
-		List<Move> moves = getAllMoves();
-		for (int i = 0; i < moves.size(); i++) {
-			if (moves.get(i).getStartIndex() != startIndex) moves.remove(i--);
+		List<Move> moves = new ArrayList<>();
+		for (Move m : getAllMoves()) {
+			if (m.getStartIndex() == startIndex) moves.add(m);
 		}
 		return moves;
 	}
@@ -440,9 +718,56 @@ public class GameState implements State {
 		return skipIndex;
 	}
 	
+	/**
+	 * Gets the pieces of the current game state, packed in a long: the tiles
+	 * of the black pieces in the upper 32 bits, the ones of the white pieces in
+	 * the lower 32 bits. With {@link #getPackedInfo()} it holds the whole game
+	 * state, i.e. three bits for each tile (black, white, king) plus the turn,
+	 * the skip index and the draw counter, in 16 bytes rather than a string.
+	 *
+	 * @return the packed pieces.
+	 * @see #setPackedState(long, long)
+	 */
+	public long getPackedPieces() {
+		return (long) board.getBlack() << 32 | board.getWhite() & 0xFFFFFFFFL;
+	}
+	
+	/**
+	 * Gets the rest of the current game state, packed in a long: the tiles of
+	 * the kings in bits 0-31, the turn in bit 32, the skip index + 1 in bits
+	 * 33-38, the moves without a skip in bits 39-44 and the draw flag in bit 45.
+	 *
+	 * @return the packed kings and info.
+	 * @see #getPackedPieces()
+	 */
+	public long getPackedInfo() {
+		return board.getKings() & 0xFFFFFFFFL | (isP1Turn ? 1L : 0L) << 32 | (long) (skipIndex + 1) << 33
+				| (long) cntMovesFromLastSkip << 39 | (draw ? 1L : 0L) << 45;
+	}
+	
+	/**
+	 * Restores a game state packed by {@link #getPackedPieces()} and
+	 * {@link #getPackedInfo()}, in constant time. Unlike
+	 * {@link #setGameState(String)}, the draw counter is restored too. The
+	 * moves applied with {@link #apply(int, int)} can no longer be undone.
+	 *
+	 * @param pieces the packed pieces.
+	 * @param info   the packed kings and info.
+	 */
+	public void setPackedState(long pieces, long info) {
+		board.setMasks((int) (pieces >>> 32), (int) pieces, (int) info);
+		this.isP1Turn = ((info >>> 32) & 1) != 0;
+		this.skipIndex = (int) ((info >>> 33) & 0b111111) - 1;
+		this.cntMovesFromLastSkip = (int) ((info >>> 39) & 0b111111);
+		this.draw = ((info >>> 45) & 1) != 0;
+		this.undoSize = 0;
+		invalidateMoves();
+	}
+	
 	/**
 	 * Gets the current game state as a string of data that can be parsed by
-	 * {@link #setGameState(String)}.
+	 * {@link #setGameState(String)}. The packed form of {@link #getPackedPieces()}
+	 * and {@link #getPackedInfo()} is far cheaper, the string is kept for compatibility.
 	 * 
 	 * @return a string representing the current game state.
 	 * @see #setGameState(String)
@@ -501,6 +826,7 @@ public class GameState implements State {
 				this.skipIndex = -1;
 			}
 		}
+		invalidateMoves();
 	}
 	
 	/**
@@ -523,11 +849,7 @@ public class GameState implements State {
 	 * @return true if the game is ending; false otherwise.
 	 */
 	private boolean isEndingPhase() {
-		List <Point> checkers;
-		checkers = board.find(Board.BLACK_CHECKER);
-		if(checkers.size() > 0) return false;
-		checkers = board.find(Board.WHITE_CHECKER);
-		return checkers.size() <= 0;
+		return board.count(Board.BLACK_CHECKER) == 0 && board.count(Board.WHITE_CHECKER) == 0;
 	}
 	
 	/**
@@ -543,15 +865,15 @@ public class GameState implements State {
 		
 		if(evalForP1) {
 			//Number of pieces
-			value += board.find(Board.BLACK_CHECKER).size() * W_CHECKER;
-			value += board.find(Board.BLACK_KING).size() * W_KING;
-			value -= board.find(Board.WHITE_CHECKER).size() * W_CHECKER;
-			value -= board.find(Board.WHITE_KING).size() * W_KING;
+			value += board.count(Board.BLACK_CHECKER) * W_CHECKER;
+			value += board.count(Board.BLACK_KING) * W_KING;
+			value -= board.count(Board.WHITE_CHECKER) * W_CHECKER;
+			value -= board.count(Board.WHITE_KING) * W_KING;
 		} else {//Eval for P2
-			value += board.find(Board.WHITE_CHECKER).size() * W_CHECKER;
-			value += board.find(Board.WHITE_KING).size() * W_KING;
-			value -= board.find(Board.BLACK_CHECKER).size() * W_CHECKER;
-			value -= board.find(Board.BLACK_KING).size() * W_KING;
+			value += board.count(Board.WHITE_CHECKER) * W_CHECKER;
+			value += board.count(Board.WHITE_KING) * W_KING;
+			value -= board.count(Board.BLACK_CHECKER) * W_CHECKER;
+			value -= board.count(Board.BLACK_KING) * W_KING;
 		}
 		
 		return value;
@@ -570,32 +892,23 @@ public class GameState implements State {
 		final double W_CHECKER_PLAYER_SIDE = 5;
 		final double W_CHECKER_OPPONENT_SIDE = 7;
 		final double W_KING = 10;
-		List<Point> kings;
-		List<Point> checkers;
-		int countPlayerSides = 0;
-		int countOpponentSide = 0;
+		int checkers;
+		int countPlayerSides;
+		int countOpponentSide;
 		
+		//The upper half of the board holds the tiles from 0 to 15
 		if(evalForP1) {
-			kings = board.find(Board.BLACK_KING);
-			value = kings.size() * W_KING;
-			checkers = board.find(Board.BLACK_CHECKER);
-			
-			for (Point p : checkers) {
-				if(Board.toIndex(p) >= 16)
-					countOpponentSide++;
-				else
-					countPlayerSides++;
-			}
+			value = board.count(Board.BLACK_KING) * W_KING;
+			checkers = board.getMask(Board.BLACK_CHECKER);
+			countOpponentSide = Integer.bitCount(checkers >>> 16);
+			countPlayerSides = Integer.bitCount(checkers & 0xFFFF);
 			value += countOpponentSide * W_CHECKER_OPPONENT_SIDE;
 			value += countPlayerSides * W_CHECKER_PLAYER_SIDE;
 		} else {//Eval for P2
-			kings = board.find(Board.WHITE_KING);
-			value = kings.size() * W_KING;
-			checkers = board.find(Board.WHITE_CHECKER);
-			for (Point p : checkers) {
-				if(Board.toIndex(p) < 16) countOpponentSide++;
-				else  countPlayerSides++;
-			}
+			value = board.count(Board.WHITE_KING) * W_KING;
+			checkers = board.getMask(Board.WHITE_CHECKER);
+			countOpponentSide = Integer.bitCount(checkers & 0xFFFF);
+			countPlayerSides = Integer.bitCount(checkers >>> 16);
 			value += countOpponentSide * W_CHECKER_OPPONENT_SIDE;
 			value += countPlayerSides * W_CHECKER_PLAYER_SIDE;
 		}
@@ -619,7 +932,7 @@ public class GameState implements State {
 		//Calculate overall distance
 		for (Point cP : playerPieces) {
 			for (Point oP : opponentPieces) {
-				distanceOverall += cP.distance(oP);
+				distanceOverall += Math.hypot(cP.x - oP.x, cP.y - oP.y);
 			}
 		}
 		//Check if current player has more pieces
@@ -0,0 +1,132 @@
+package com.dca.checkers.model;
+
+import java.util.Locale;
+
+/**
+ * The {@code LatencyHistogram} class counts durations in buckets of fixed
+ * relative width, in the manner of an HDR histogram: values below
+ * {@value #SUB_BUCKETS} nanoseconds have a bucket each, larger ones share a
+ * bucket with the values that differ from them by less than 1%. The memory
+ * used is fixed, whatever the number of values recorded, and histograms can be
+ * merged, e.g. the ones recorded by games played on different threads.
+ * <p>
+ * Instances are not thread safe: each thread records on its own histogram.
+ */
+public class LatencyHistogram {
+	
+	/** Number of buckets for each power of 2, doubled for the first one. */
+	private static final int SUB_BUCKETS = 256;
+	
+	/** Bits of a value that select its bucket in a power of 2. */
+	private static final int SUB_BUCKET_BITS = 8;
+	
+	/** Largest value recorded precisely (about 18 minutes in nanoseconds): larger ones are counted as it. */
+	public static final long MAX_VALUE = (1L << 40) - 1;
+	
+	private final long[] counts = new long[bucketOf(MAX_VALUE) + 1];
+	
+	private long totalCount;
+	
+	private long sum;
+	
+	/** The largest value recorded, even if larger than {@link #MAX_VALUE}. */
+	private long max;
+	
+	/**
+	 * Get the bucket of a value.
+	 *
+	 * @param value the value, from 0 to {@link #MAX_VALUE}.
+	 * @return the index of the bucket.
+	 */
+	private static int bucketOf(long value) {
+		if (value < SUB_BUCKETS) return (int) value;
+		int shift = 64 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+		return SUB_BUCKETS + (shift - 1) * (SUB_BUCKETS / 2) + (int) (value >>> shift) - SUB_BUCKETS / 2;
+	}
+	
+	/**
+	 * Get the largest value counted in a bucket.
+	 *
+	 * @param bucket the index of the bucket.
+	 * @return the largest value of the bucket.
+	 */
+	private static long highestValueOf(int bucket) {
+		if (bucket < SUB_BUCKETS) return bucket;
+		int shift = (bucket - SUB_BUCKETS) / (SUB_BUCKETS / 2) + 1;
+		long sub = (bucket - SUB_BUCKETS) % (SUB_BUCKETS / 2) + SUB_BUCKETS / 2;
+		return ((sub + 1) << shift) - 1;
+	}
+	
+	/**
+	 * Count a value.
+	 *
+	 * @param value the value, negative values are counted as 0.
+	 */
+	public void record(long value) {
+		value = Math.max(0, value);
+		counts[bucketOf(Math.min(value, MAX_VALUE))]++;
+		totalCount++;
+		sum += value;
+		if (value > max) max = value;
+	}
+	
+	/**
+	 * Add the values counted by another histogram to this one.
+	 *
+	 * @param other the histogram to add.
+	 */
+	public void add(LatencyHistogram other) {
+		for (int i = 0; i < counts.length; i++) {
+			counts[i] += other.counts[i];
+		}
+		totalCount += other.totalCount;
+		sum += other.sum;
+		if (other.max > max) max = other.max;
+	}
+	
+	public long getCount() {
+		return totalCount;
+	}
+	
+	public long getMax() {
+		return max;
+	}
+	
+	/**
+	 * Get the mean of the values counted.
+	 *
+	 * @return the mean, 0 if no value has been counted.
+	 */
+	public double getMean() {
+		return totalCount == 0 ? 0 : (double) sum / totalCount;
+	}
+	
+	/**
+	 * Get the value that the specified percentage of the values counted does not exceed,
+	 * within the precision of the buckets.
+	 *
+	 * @param percentile the percentage, from 0 to 100.
+	 * @return the value, 0 if no value has been counted.
+	 */
+	public long getValueAtPercentile(double percentile) {
+		if (totalCount == 0) return 0;
+		long rank = Math.max(1, (long) Math.ceil(Math.min(100, percentile) / 100 * totalCount));
+		long seen = 0;
+		for (int i = 0; i < counts.length; i++) {
+			seen += counts[i];
+			if (seen >= rank) return Math.min(highestValueOf(i), max);
+		}
+		return max;
+	}
+	
+	/**
+	 * Describe the distribution of the values as durations in milliseconds.
+	 *
+	 * @return the percentiles 50, 90, 99 and 99.9 and the max.
+	 */
+	public String toMillisString() {
+		return String.format(Locale.ROOT, "p50=%.3f p90=%.3f p99=%.3f p99.9=%.3f max=%.3f (ms, %d values)",
+				getValueAtPercentile(50) / 1e6, getValueAtPercentile(90) / 1e6, getValueAtPercentile(99) / 1e6,
+				getValueAtPercentile(99.9) / 1e6, max / 1e6, totalCount);
+	}
+}
@@ -8,9 +8,28 @@ import java.util.Objects;
 /**
  * The {@code Move} class represents a move and contains a weight associated
  * with the move.
+ * <p>
+ * The search algorithms don't allocate {@code Move} objects: they work with
+ * moves packed into an {@code int} by {@link #encode(int, int, int, MoveType)}
+ * and stored in a {@link MoveList}. The layout of an encoded move is:
+ * <ul>
+ *     <li>bits 0 - 4: start index;</li>
+ *     <li>bits 5 - 9: end index;</li>
+ *     <li>bits 10 - 14: index of the skipped piece (0 if not a skip);</li>
+ *     <li>bit 15: set if the move is a {@link MoveType#SKIP}.</li>
+ * </ul>
+ * A skip generated by {@link GameState#generateMoves(MoveList)} is a whole
+ * capture sequence: its end is the last landing tile, its skipped piece is the
+ * first one, and the {@link MoveList} keeps the mask of all the captured tiles.
  */
 public class Move {
 	
+	/** Bit of an encoded move telling that the move is a skip. */
+	private static final int SKIP_FLAG = 1 << 15;
+	
+	/** Mask of a 5 bits tile index in an encoded move. */
+	private static final int INDEX_MASK = 0b11111;
+	
 	/**
 	 * The startClick index of the move.
 	 */
@@ -71,6 +90,94 @@ public class Move {
 		setEndIndex(Board.toIndex(end));
 	}
 	
+	/**
+	 * Packs this move into an integer.
+	 *
+	 * @return the encoded move.
+	 * @see #encode(int, int, int, MoveType)
+	 */
+	public int encode() {
+		int middle = (type == MoveType.SKIP)? Board.toIndex(Board.middle(startIndex, endIndex)) : -1;
+		return encode(startIndex, endIndex, middle, type);
+	}
+	
+	/**
+	 * Packs a move into an integer.
+	 *
+	 * @param startIndex  the start index of the move.
+	 * @param endIndex    the end index of the move.
+	 * @param middleIndex the index of the skipped piece (ignored if the move is not a skip).
+	 * @param type        the move type.
+	 * @return the encoded move.
+	 */
+	public static int encode(int startIndex, int endIndex, int middleIndex, MoveType type) {
+		int move = (startIndex & INDEX_MASK) | (endIndex & INDEX_MASK) << 5;
+		if (type == MoveType.SKIP) {
+			move |= (middleIndex & INDEX_MASK) << 10 | SKIP_FLAG;
+		}
+		return move;
+	}
+	
+	/**
+	 * Unpacks an encoded move.
+	 *
+	 * @param move the encoded move.
+	 * @return a new move object equivalent to the encoded move.
+	 */
+	public static Move decode(int move) {
+		return new Move(startOf(move), endOf(move), typeOf(move));
+	}
+	
+	/**
+	 * Gets the start index of an encoded move.
+	 *
+	 * @param move the encoded move.
+	 * @return the start index.
+	 */
+	public static int startOf(int move) {
+		return move & INDEX_MASK;
+	}
+	
+	/**
+	 * Gets the end index of an encoded move.
+	 *
+	 * @param move the encoded move.
+	 * @return the end index.
+	 */
+	public static int endOf(int move) {
+		return (move >>> 5) & INDEX_MASK;
+	}
+	
+	/**
+	 * Gets the index of the piece skipped by an encoded move.
+	 *
+	 * @param move the encoded move.
+	 * @return the index of the skipped piece, or -1 if the move is not a skip.
+	 */
+	public static int middleOf(int move) {
+		return isSkip(move)? (move >>> 10) & INDEX_MASK : -1;
+	}
+	
+	/**
+	 * Tells if an encoded move is a skip.
+	 *
+	 * @param move the encoded move.
+	 * @return true if the move is a skip, false otherwise.
+	 */
+	public static boolean isSkip(int move) {
+		return (move & SKIP_FLAG) != 0;
+	}
+	
+	/**
+	 * Gets the type of an encoded move.
+	 *
+	 * @param move the encoded move.
+	 * @return the move type.
+	 */
+	public static MoveType typeOf(int move) {
+		return isSkip(move)? MoveType.SKIP : MoveType.NORMAL;
+	}
+	
 	@Override
 	public boolean equals(Object o) {
 		if (this == o) return true;
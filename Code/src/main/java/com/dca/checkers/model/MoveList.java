@@ -0,0 +1,195 @@
+package com.dca.checkers.model;
+
+import java.util.Random;
+
+/**
+ * The {@code MoveList} class is a reusable buffer of moves encoded as
+ * integers (see {@link Move#encode(int, int, int, MoveType)}). A search keeps
+ * one list per ply and refills it with {@link GameState#generateMoves(MoveList)},
+ * so no object is allocated while generating moves once the buffer has grown
+ * to the size it needs.
+ * <p>
+ * Along with each move the list keeps the mask of the tiles it captures:
+ * a skip is a whole capture sequence, whose encoding only holds the start,
+ * the final tile and the first piece skipped.
+ */
+public class MoveList {
+	
+	/** Default number of moves the buffer can hold before growing. */
+	private static final int DEFAULT_CAPACITY = 64;
+	
+	/** The encoded moves. Only the first {@link #size} entries are valid. */
+	private int[] moves;
+	
+	/** The tiles captured by each move, 0 if it is not a skip. */
+	private int[] captures;
+	
+	/** Number of moves in the list. */
+	private int size;
+	
+	public MoveList() {
+		this(DEFAULT_CAPACITY);
+	}
+	
+	public MoveList(int capacity) {
+		this.moves = new int[Math.max(1, capacity)];
+		this.captures = new int[moves.length];
+		this.size = 0;
+	}
+	
+	/**
+	 * Removes all the moves, keeping the buffer for reuse.
+	 */
+	public void clear() {
+		size = 0;
+	}
+	
+	/**
+	 * Removes the moves after the specified size, keeping the buffer for reuse.
+	 *
+	 * @param size the number of moves to keep (at most {@link #size()}).
+	 */
+	public void truncate(int size) {
+		this.size = Math.max(0, Math.min(size, this.size));
+	}
+	
+	/**
+	 * Appends an encoded move that captures nothing at the end of the list.
+	 *
+	 * @param move the encoded move to add.
+	 */
+	public void add(int move) {
+		add(move, 0);
+	}
+	
+	/**
+	 * Appends an encoded move at the end of the list.
+	 *
+	 * @param move     the encoded move to add.
+	 * @param captured the mask of the tiles captured by the move.
+	 */
+	public void add(int move, int captured) {
+		if (size == moves.length) {
+			int[] grown = new int[moves.length * 2];
+			System.arraycopy(moves, 0, grown, 0, size);
+			moves = grown;
+			grown = new int[moves.length];
+			System.arraycopy(captures, 0, grown, 0, size);
+			captures = grown;
+		}
+		captures[size] = captured;
+		moves[size++] = move;
+	}
+	
+	/**
+	 * Appends all the moves of another list, with their captured tiles.
+	 *
+	 * @param other the list to copy the moves from.
+	 */
+	public void addAll(MoveList other) {
+		for (int i = 0; i < other.size; i++) {
+			add(other.moves[i], other.captures[i]);
+		}
+	}
+	
+	/**
+	 * Gets the encoded move at the specified position.
+	 *
+	 * @param i the position of the move (from 0 to {@link #size()} - 1).
+	 * @return the encoded move.
+	 */
+	public int get(int i) {
+		return moves[i];
+	}
+	
+	/**
+	 * Gets the tiles captured by the move at the specified position.
+	 *
+	 * @param i the position of the move (from 0 to {@link #size()} - 1).
+	 * @return the mask of the captured tiles, 0 if the move is not a skip.
+	 */
+	public int getCaptured(int i) {
+		return captures[i];
+	}
+	
+	/**
+	 * Replaces the move at the specified position.
+	 *
+	 * @param i        the position of the move (from 0 to {@link #size()} - 1).
+	 * @param move     the new encoded move.
+	 * @param captured the mask of the tiles captured by the new move.
+	 */
+	public void set(int i, int move, int captured) {
+		moves[i] = move;
+		captures[i] = captured;
+	}
+	
+	/**
+	 * Tells if the list already holds a move.
+	 *
+	 * @param from     the position where the search starts.
+	 * @param move     the encoded move.
+	 * @param captured the mask of the tiles captured by the move.
+	 * @return true if the move is in the list at or after the position.
+	 */
+	public boolean contains(int from, int move, int captured) {
+		for (int i = Math.max(0, from); i < size; i++) {
+			if (moves[i] == move && captures[i] == captured) return true;
+		}
+		return false;
+	}
+	
+	/**
+	 * Swaps the moves at two positions.
+	 *
+	 * @param i the position of the first move.
+	 * @param j the position of the second move.
+	 */
+	public void swap(int i, int j) {
+		int tmp = moves[i];
+		moves[i] = moves[j];
+		moves[j] = tmp;
+		tmp = captures[i];
+		captures[i] = captures[j];
+		captures[j] = tmp;
+	}
+	
+	/**
+	 * Shuffles the moves in place.
+	 *
+	 * @param rnd the source of randomness to use.
+	 */
+	public void shuffle(Random rnd) {
+		for (int i = size - 1; i > 0; i--) {
+			swap(i, rnd.nextInt(i + 1));
+		}
+	}
+	
+	/**
+	 * Gets the number of moves in the list.
+	 *
+	 * @return the number of moves.
+	 */
+	public int size() {
+		return size;
+	}
+	
+	/**
+	 * Tells if the list has no moves.
+	 *
+	 * @return true if the list is empty, false otherwise.
+	 */
+	public boolean isEmpty() {
+		return size == 0;
+	}
+	
+	@Override
+	public String toString() {
+		StringBuilder obj = new StringBuilder(getClass().getSimpleName() + "[");
+		for (int i = 0; i < size; i++) {
+			if (i > 0) obj.append(", ");
+			obj.append(Move.decode(moves[i]));
+		}
+		return obj + "]";
+	}
+}
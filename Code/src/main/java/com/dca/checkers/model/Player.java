@@ -14,6 +14,24 @@ public interface Player {
 	/** Get the last maximum depth reached during game state tree search*/
 	int getLastMaxDepthReached();
 	
+	/**
+	 * Get the number of nodes expanded by the last search of a move.
+	 *
+	 * @return the number of nodes, -1 if the player doesn't search.
+	 */
+	default long getLastExpandedNodes() {
+		return -1;
+	}
+	
+	/**
+	 * Get the statistics of the last search of a move.
+	 *
+	 * @return the statistics, {@link SearchStats#EMPTY} if the player doesn't search.
+	 */
+	default SearchStats getLastSearchStats() {
+		return SearchStats.EMPTY;
+	}
+	
 	/**
 	 * Determines how the game is updated. If true, the user must interact with
 	 * the user interface to make a move. Otherwise, the game is updated via
@@ -0,0 +1,152 @@
+package com.dca.checkers.model;
+
+import java.util.Locale;
+
+/**
+ * The {@code SearchStats} class is an immutable snapshot of the work done by
+ * an AI to choose a move: how many nodes it searched and how fast, how well
+ * its moves were ordered and how useful its transposition table was.
+ * <p>
+ * Counters that an AI doesn't keep are 0, e.g. the table probes of an AI
+ * without a transposition table.
+ */
+public final class SearchStats {
+	
+	/** The statistics of a move chosen without any search. */
+	public static final SearchStats EMPTY = new SearchStats(0, 0, 0, 0, 0, 0, 0, 0, 0, -1);
+	
+	/** Number of nodes expanded, quiescence nodes excluded. */
+	private final long nodes;
+	
+	/** Number of quiescence nodes expanded. */
+	private final long quiescenceNodes;
+	
+	/** Number of positions evaluated. */
+	private final long evaluations;
+	
+	/** Number of nodes whose search was cut off by the beta bound. */
+	private final long betaCutoffs;
+	
+	/** Number of cutoffs caused by the first move searched. */
+	private final long firstMoveCutoffs;
+	
+	/** Number of lookups in the transposition table. */
+	private final long tableProbes;
+	
+	/** Number of lookups that found the position in the transposition table. */
+	private final long tableHits;
+	
+	/** Duration of the search in nanoseconds. */
+	private final long elapsedTime;
+	
+	/** Depth of the last iteration completed. */
+	private final int completedDepth;
+	
+	/** The max depth reached, -1 if no node has been searched. */
+	private final int maxDepthReached;
+	
+	public SearchStats(long nodes, long quiescenceNodes, long evaluations, long betaCutoffs, long firstMoveCutoffs,
+	                   long tableProbes, long tableHits, long elapsedTime, int completedDepth, int maxDepthReached) {
+		this.nodes = nodes;
+		this.quiescenceNodes = quiescenceNodes;
+		this.evaluations = evaluations;
+		this.betaCutoffs = betaCutoffs;
+		this.firstMoveCutoffs = firstMoveCutoffs;
+		this.tableProbes = tableProbes;
+		this.tableHits = tableHits;
+		this.elapsedTime = elapsedTime;
+		this.completedDepth = completedDepth;
+		this.maxDepthReached = maxDepthReached;
+	}
+	
+	public long getNodes() {
+		return nodes;
+	}
+	
+	public long getQuiescenceNodes() {
+		return quiescenceNodes;
+	}
+	
+	public long getEvaluations() {
+		return evaluations;
+	}
+	
+	public long getBetaCutoffs() {
+		return betaCutoffs;
+	}
+	
+	public long getFirstMoveCutoffs() {
+		return firstMoveCutoffs;
+	}
+	
+	public long getTableProbes() {
+		return tableProbes;
+	}
+	
+	public long getTableHits() {
+		return tableHits;
+	}
+	
+	public long getElapsedTime() {
+		return elapsedTime;
+	}
+	
+	public int getCompletedDepth() {
+		return completedDepth;
+	}
+	
+	public int getMaxDepthReached() {
+		return maxDepthReached;
+	}
+	
+	/**
+	 * Get the speed of the search, quiescence nodes included.
+	 *
+	 * @return the nodes expanded per second, 0 if no time has elapsed.
+	 */
+	public double getNodesPerSecond() {
+		return elapsedTime <= 0 ? 0 : (nodes + quiescenceNodes) * 1e9 / elapsedTime;
+	}
+	
+	/**
+	 * Get the share of the cutoffs caused by the first move searched: the
+	 * closer to 1, the better the moves are ordered.
+	 *
+	 * @return the first move cutoff rate, 0 if there was no cutoff.
+	 */
+	public double getFirstMoveCutoffRate() {
+		return betaCutoffs == 0 ? 0 : (double) firstMoveCutoffs / betaCutoffs;
+	}
+	
+	/**
+	 * Get the effective branching factor: the number of children that, expanded
+	 * by every node, would have given the nodes expanded at the completed depth.
+	 *
+	 * @return the effective branching factor, 0 if no iteration was completed.
+	 */
+	public double getEffectiveBranchingFactor() {
+		return completedDepth <= 0 || nodes <= 0 ? 0 : Math.pow(nodes, 1.0 / completedDepth);
+	}
+	
+	/**
+	 * Get the share of the lookups that found the position in the transposition table.
+	 *
+	 * @return the hit rate, 0 if the table was never probed.
+	 */
+	public double getTableHitRate() {
+		return tableProbes == 0 ? 0 : (double) tableHits / tableProbes;
+	}
+	
+	@Override
+	public String toString() {
+		String s = String.format(Locale.ROOT,
+				"depth %d (max %d), %d nodes (+%d quiescence) in %.1f ms, %.0f nodes/s, %d evals, "
+						+ "%d cutoffs (%.1f%% first move), EBF %.2f",
+				completedDepth, maxDepthReached, nodes, quiescenceNodes, elapsedTime / 1e6, getNodesPerSecond(),
+				evaluations, betaCutoffs, getFirstMoveCutoffRate() * 100, getEffectiveBranchingFactor());
+		if (tableProbes > 0) {
+			s += String.format(Locale.ROOT, ", TT %d/%d hits (%.1f%%)", tableHits, tableProbes, getTableHitRate() * 100);
+		}
+		return s;
+	}
+}
@@ -0,0 +1,766 @@
+package com.dca.checkers.model;
+
+import java.io.PrintStream;
+import java.util.Locale;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.IntFunction;
+import java.util.function.Supplier;
+
+/**
+ * The {@code Tournament} class plays a series of games between two players
+ * without any user interface. Games are played concurrently on a pool of
+ * threads, each one with its own game state and new instances of the players,
+ * so that no state is shared between games. Players can swap colors at every
+ * game, and the results are aggregated for each player rather than for each color.
+ */
+public class Tournament {
+	
+	/** Creates the instances of the first player, given the index of the game. */
+	private final IntFunction<Player> player1Factory;
+	
+	/** Creates the instances of the second player, given the index of the game. */
+	private final IntFunction<Player> player2Factory;
+	
+	/** Number of games to play. */
+	private final int numMatch;
+	
+	/** Number of games played at the same time. */
+	private int threads = 1;
+	
+	/** Flag that tells if the players swap colors at every game (the first player starts as black). */
+	private boolean alternateColors;
+	
+	/** Notified on the thread running the tournament as soon as each game is over. */
+	private Consumer<GameRecord> listener = record -> {};
+	
+	/** Notified on the threads playing the games after every move, null for none. */
+	private Consumer<MoveRecord> moveListener;
+	
+	/** Number of games being played and of games over, read while the tournament runs. */
+	private final AtomicInteger gamesInProgress = new AtomicInteger();
+	
+	private final AtomicInteger gamesCompleted = new AtomicInteger();
+	
+	/**
+	 * Creates a tournament between two players.
+	 *
+	 * @param player1Factory creates a new instance of the first player for each game.
+	 * @param player2Factory creates a new instance of the second player for each game.
+	 * @param numMatch       the number of games to play.
+	 */
+	public Tournament(Supplier<Player> player1Factory, Supplier<Player> player2Factory, int numMatch) {
+		this(gameIndex -> player1Factory.get(), gameIndex -> player2Factory.get(), numMatch);
+	}
+	
+	/**
+	 * Creates a tournament between two players whose instances depend on the
+	 * game they play, e.g. to seed their randomness for reproducible games.
+	 *
+	 * @param player1Factory creates a new instance of the first player for the game of an index.
+	 * @param player2Factory creates a new instance of the second player for the game of an index.
+	 * @param numMatch       the number of games to play.
+	 */
+	public Tournament(IntFunction<Player> player1Factory, IntFunction<Player> player2Factory, int numMatch) {
+		this.player1Factory = player1Factory;
+		this.player2Factory = player2Factory;
+		this.numMatch = numMatch;
+	}
+	
+	/**
+	 * Set the number of games played at the same time.
+	 *
+	 * @param threads the number of threads playing games (at least 1).
+	 */
+	public void setThreads(int threads) {
+		this.threads = Math.max(1, threads);
+	}
+	
+	public int getThreads() {
+		return threads;
+	}
+	
+	/**
+	 * Set if the players swap colors at every game.
+	 *
+	 * @param alternateColors true to swap colors, false to let the first player always play black.
+	 */
+	public void setAlternateColors(boolean alternateColors) {
+		this.alternateColors = alternateColors;
+	}
+	
+	/**
+	 * Set the listener of the games played. It is called by the thread running
+	 * the tournament, one game at a time, in the order the games end.
+	 *
+	 * @param listener the listener, null for none.
+	 */
+	public void setListener(Consumer<GameRecord> listener) {
+		this.listener = listener == null ? record -> {} : listener;
+	}
+	
+	/**
+	 * Set the listener of the moves played. It is called by the threads playing
+	 * the games right after each move, so it must be thread safe and fast.
+	 *
+	 * @param moveListener the listener, null for none.
+	 */
+	public void setMoveListener(Consumer<MoveRecord> moveListener) {
+		this.moveListener = moveListener;
+	}
+	
+	/**
+	 * Get the number of games being played, e.g. to monitor a running tournament.
+	 *
+	 * @return the number of games started and not over yet.
+	 */
+	public int getGamesInProgress() {
+		return gamesInProgress.get();
+	}
+	
+	public int getGamesCompleted() {
+		return gamesCompleted.get();
+	}
+	
+	/**
+	 * Play all the games, waiting for them to be over.
+	 *
+	 * @return the aggregated results.
+	 * @throws InterruptedException if the thread is interrupted while waiting for the games.
+	 */
+	public Report run() throws InterruptedException {
+		long startTime = System.nanoTime();
+		Report report = new Report(numMatch, threads);
+		AtomicInteger threadId = new AtomicInteger();
+		ExecutorService pool = Executors.newFixedThreadPool(threads, r -> {
+			Thread t = new Thread(r, "Tournament-" + threadId.incrementAndGet());
+			t.setDaemon(true);
+			return t;
+		});
+		try {
+			CompletionService<GameRecord> games = new ExecutorCompletionService<>(pool);
+			for (int i = 0; i < numMatch; i++) {
+				int gameIndex = i;
+				games.submit(() -> {
+					gamesInProgress.incrementAndGet();
+					try {
+						return play(gameIndex);
+					} finally {
+						gamesInProgress.decrementAndGet();
+						gamesCompleted.incrementAndGet();
+					}
+				});
+			}
+			for (int i = 0; i < numMatch; i++) {
+				try {
+					GameRecord record = games.take().get();
+					report.add(record);
+					listener.accept(record);
+				} catch (ExecutionException e) {
+					System.err.println("An error occurred during a game.\n");
+					e.getCause().printStackTrace();
+				}
+			}
+		} finally {
+			pool.shutdownNow();
+		}
+		report.elapsedTime = System.nanoTime() - startTime;
+		return report;
+	}
+	
+	/**
+	 * Play a single game from the initial position.
+	 *
+	 * @param gameIndex the index of the game, from 0.
+	 * @return the record of the game.
+	 */
+	private GameRecord play(int gameIndex) {
+		boolean player1IsBlack = !alternateColors || gameIndex % 2 == 0;
+		Player player1 = player1Factory.apply(gameIndex);
+		Player player2 = player2Factory.apply(gameIndex);
+		Player black = player1IsBlack ? player1 : player2;
+		Player white = player1IsBlack ? player2 : player1;
+		GameRecord record = new GameRecord(gameIndex, player1IsBlack);
+		Consumer<MoveRecord> moveListener = this.moveListener;
+		long gameStart = System.nanoTime();
+		
+		GameState gameState = new GameState();
+		while (!gameState.isGameOver()) {
+			boolean isBlackTurn = gameState.isP1Turn();
+			Player currentPlayer = isBlackTurn ? black : white;
+			long key = gameState.getKey();
+			Board before = gameState.getBoard();
+			long startTime = System.nanoTime();
+			currentPlayer.updateGame(gameState);
+			long stopTime = System.nanoTime();
+			boolean isPlayer1 = isBlackTurn == player1IsBlack;
+			PlayerStats stats = isPlayer1 ? record.player1 : record.player2;
+			int depth = currentPlayer.getLastMaxDepthReached();
+			SearchStats search = currentPlayer.getLastSearchStats();
+			stats.addMove(stopTime - startTime, depth, GamePhase.of(before), search);
+			record.plies++;
+			if (moveListener != null) {
+				//The moved piece is the only one of the player that changed tile
+				Board after = gameState.getBoard();
+				int own = isBlackTurn ? before.getBlack() : before.getWhite();
+				int ownAfter = isBlackTurn ? after.getBlack() : after.getWhite();
+				int opponent = isBlackTurn ? before.getWhite() : before.getBlack();
+				int opponentAfter = isBlackTurn ? after.getWhite() : after.getBlack();
+				int from = own & ~ownAfter, to = ownAfter & ~own;
+				moveListener.accept(new MoveRecord(gameIndex, record.plies, isPlayer1 ? 1 : 2, isBlackTurn, key,
+						from == 0 ? -1 : Integer.numberOfTrailingZeros(from), to == 0 ? -1 : Integer.numberOfTrailingZeros(to),
+						Integer.bitCount(opponent & ~opponentAfter), stopTime - startTime,
+						currentPlayer.getLastExpandedNodes(), depth, gameState.value(isBlackTurn), search));
+			}
+		}
+		record.elapsedTime = System.nanoTime() - gameStart;
+		record.setResult(gameState.getResult());
+		return record;
+	}
+	
+	/**
+	 * The {@code PlayerStats} class collects the results and the moves of a
+	 * player over one or more games.
+	 */
+	public static class PlayerStats {
+		
+		private long wins, defeats, draws;
+		
+		private long moves;
+		
+		/** Total time spent on moves in nanoseconds. */
+		private long moveTime;
+		
+		/** Sum of the max depths reached by the moves. */
+		private long depth;
+		
+		/** Totals of the counters of the searches (see {@link SearchStats}). */
+		private long nodes, quiescenceNodes, evaluations, betaCutoffs, firstMoveCutoffs, tableProbes, tableHits;
+		
+		/** Total time spent on searches in nanoseconds. */
+		private long searchTime;
+		
+		/** Number of moves with a completed iteration, and the sum of their effective branching factors. */
+		private long deepenedMoves;
+		
+		private double branchingFactor;
+		
+		/** Distribution of the move times for each game phase. */
+		private final LatencyHistogram[] latency = new LatencyHistogram[GamePhase.values().length];
+		
+		PlayerStats() {
+			for (int i = 0; i < latency.length; i++) {
+				latency[i] = new LatencyHistogram();
+			}
+		}
+		
+		void addMove(long time, int maxDepth, GamePhase phase, SearchStats search) {
+			moves++;
+			moveTime += time;
+			depth += maxDepth;
+			latency[phase.ordinal()].record(time);
+			nodes += search.getNodes();
+			quiescenceNodes += search.getQuiescenceNodes();
+			evaluations += search.getEvaluations();
+			betaCutoffs += search.getBetaCutoffs();
+			firstMoveCutoffs += search.getFirstMoveCutoffs();
+			tableProbes += search.getTableProbes();
+			tableHits += search.getTableHits();
+			searchTime += search.getElapsedTime();
+			if (search.getCompletedDepth() > 0) {
+				deepenedMoves++;
+				branchingFactor += search.getEffectiveBranchingFactor();
+			}
+		}
+		
+		/**
+		 * Add the results and the moves of other stats to these ones.
+		 *
+		 * @param other the stats to add.
+		 */
+		void merge(PlayerStats other) {
+			wins += other.wins;
+			defeats += other.defeats;
+			draws += other.draws;
+			moves += other.moves;
+			moveTime += other.moveTime;
+			depth += other.depth;
+			nodes += other.nodes;
+			quiescenceNodes += other.quiescenceNodes;
+			evaluations += other.evaluations;
+			betaCutoffs += other.betaCutoffs;
+			firstMoveCutoffs += other.firstMoveCutoffs;
+			tableProbes += other.tableProbes;
+			tableHits += other.tableHits;
+			searchTime += other.searchTime;
+			deepenedMoves += other.deepenedMoves;
+			branchingFactor += other.branchingFactor;
+			for (int i = 0; i < latency.length; i++) {
+				latency[i].add(other.latency[i]);
+			}
+		}
+		
+		public long getWins() {
+			return wins;
+		}
+		
+		public long getDefeats() {
+			return defeats;
+		}
+		
+		public long getDraws() {
+			return draws;
+		}
+		
+		public long getMoves() {
+			return moves;
+		}
+		
+		/**
+		 * Get the total time spent on moves.
+		 *
+		 * @return the time in nanoseconds.
+		 */
+		public long getMoveTime() {
+			return moveTime;
+		}
+		
+		/**
+		 * Get the average time spent on a move.
+		 *
+		 * @return the time in nanoseconds, 0 if no move has been made.
+		 */
+		public long getAverageMoveTime() {
+			return moves == 0 ? 0 : moveTime / moves;
+		}
+		
+		/**
+		 * Get the distribution of the times of the moves in a game phase.
+		 *
+		 * @param phase the game phase.
+		 * @return the histogram of the move times in nanoseconds, not to be modified.
+		 */
+		public LatencyHistogram getLatency(GamePhase phase) {
+			return latency[phase.ordinal()];
+		}
+		
+		/**
+		 * Get the distribution of the times of all the moves.
+		 *
+		 * @return a new histogram of the move times in nanoseconds.
+		 */
+		public LatencyHistogram getLatency() {
+			LatencyHistogram total = new LatencyHistogram();
+			for (LatencyHistogram phaseLatency : latency) {
+				total.add(phaseLatency);
+			}
+			return total;
+		}
+		
+		/**
+		 * Get the average max depth reached by a move.
+		 *
+		 * @return the average depth, 0 if no move has been made.
+		 */
+		public double getAverageDepth() {
+			return moves == 0 ? 0 : (double) depth / moves;
+		}
+		
+		/**
+		 * Get the nodes expanded by all the searches, quiescence nodes excluded.
+		 *
+		 * @return the number of nodes.
+		 */
+		public long getNodes() {
+			return nodes;
+		}
+		
+		public long getEvaluations() {
+			return evaluations;
+		}
+		
+		/**
+		 * Get the speed of the searches, quiescence nodes included.
+		 *
+		 * @return the nodes expanded per second, 0 if the player doesn't search.
+		 */
+		public double getNodesPerSecond() {
+			return searchTime <= 0 ? 0 : (nodes + quiescenceNodes) * 1e9 / searchTime;
+		}
+		
+		/**
+		 * Get the share of the cutoffs caused by the first move searched.
+		 *
+		 * @return the first move cutoff rate, 0 if there was no cutoff.
+		 */
+		public double getFirstMoveCutoffRate() {
+			return betaCutoffs == 0 ? 0 : (double) firstMoveCutoffs / betaCutoffs;
+		}
+		
+		/**
+		 * Get the average effective branching factor of the moves with a completed iteration.
+		 *
+		 * @return the average branching factor, 0 if no iteration was completed.
+		 */
+		public double getAverageBranchingFactor() {
+			return deepenedMoves == 0 ? 0 : branchingFactor / deepenedMoves;
+		}
+		
+		/**
+		 * Get the share of the lookups that found the position in the transposition table.
+		 *
+		 * @return the hit rate, 0 if the table was never probed.
+		 */
+		public double getTableHitRate() {
+			return tableProbes == 0 ? 0 : (double) tableHits / tableProbes;
+		}
+	}
+	
+	/**
+	 * The {@code GameRecord} class holds the outcome of a single game of a tournament.
+	 */
+	public static class GameRecord {
+		
+		private final int gameIndex;
+		
+		private final boolean player1IsBlack;
+		
+		private MatchResult result = MatchResult.UNKNOWN;
+		
+		/** Number of updateGame executions of the game. */
+		private int plies;
+		
+		/** Time required to play the game in nanoseconds. */
+		private long elapsedTime;
+		
+		private final PlayerStats player1 = new PlayerStats();
+		
+		private final PlayerStats player2 = new PlayerStats();
+		
+		GameRecord(int gameIndex, boolean player1IsBlack) {
+			this.gameIndex = gameIndex;
+			this.player1IsBlack = player1IsBlack;
+		}
+		
+		/**
+		 * Set the result of the game and the wins, defeats and draws of the players.
+		 *
+		 * @param result the result, where {@link MatchResult#P1_WIN} is a win of black.
+		 */
+		void setResult(MatchResult result) {
+			this.result = result;
+			int winner = getWinner();
+			if (winner == 1) {
+				player1.wins++;
+				player2.defeats++;
+			} else if (winner == 2) {
+				player2.wins++;
+				player1.defeats++;
+			} else if (result == MatchResult.DRAW) {
+				player1.draws++;
+				player2.draws++;
+			}
+		}
+		
+		public int getGameIndex() {
+			return gameIndex;
+		}
+		
+		public boolean isPlayer1Black() {
+			return player1IsBlack;
+		}
+		
+		/**
+		 * Get the result of the game by color.
+		 *
+		 * @return the result, where {@link MatchResult#P1_WIN} is a win of black.
+		 */
+		public MatchResult getResult() {
+			return result;
+		}
+		
+		/**
+		 * Get the winner of the game.
+		 *
+		 * @return 1 for the first player, 2 for the second one, 0 for a draw.
+		 */
+		public int getWinner() {
+			if (result == MatchResult.P1_WIN) return player1IsBlack ? 1 : 2;
+			if (result == MatchResult.P2_WIN) return player1IsBlack ? 2 : 1;
+			return 0;
+		}
+		
+		public int getPlies() {
+			return plies;
+		}
+		
+		/**
+		 * Get the time required to play the game.
+		 *
+		 * @return the time in nanoseconds.
+		 */
+		public long getElapsedTime() {
+			return elapsedTime;
+		}
+		
+		public PlayerStats getPlayer1() {
+			return player1;
+		}
+		
+		public PlayerStats getPlayer2() {
+			return player2;
+		}
+	}
+	
+	/**
+	 * The {@code MoveRecord} class holds a single move of a game of a tournament,
+	 * that is a single updateGame execution of a player.
+	 */
+	public static class MoveRecord {
+		
+		private final int gameIndex;
+		
+		private final int ply;
+		
+		private final int player;
+		
+		private final boolean isBlack;
+		
+		private final long positionKey;
+		
+		private final int startIndex, endIndex, captures;
+		
+		private final long time;
+		
+		private final long nodes;
+		
+		private final int depth;
+		
+		private final double eval;
+		
+		private final SearchStats search;
+		
+		MoveRecord(int gameIndex, int ply, int player, boolean isBlack, long positionKey, int startIndex,
+		           int endIndex, int captures, long time, long nodes, int depth, double eval, SearchStats search) {
+			this.gameIndex = gameIndex;
+			this.ply = ply;
+			this.player = player;
+			this.isBlack = isBlack;
+			this.positionKey = positionKey;
+			this.startIndex = startIndex;
+			this.endIndex = endIndex;
+			this.captures = captures;
+			this.time = time;
+			this.nodes = nodes;
+			this.depth = depth;
+			this.eval = eval;
+			this.search = search;
+		}
+		
+		public int getGameIndex() {
+			return gameIndex;
+		}
+		
+		/**
+		 * Get the number of the move in its game.
+		 *
+		 * @return the number of the move, from 1.
+		 */
+		public int getPly() {
+			return ply;
+		}
+		
+		/**
+		 * Get the player who moved.
+		 *
+		 * @return 1 for the first player, 2 for the second one.
+		 */
+		public int getPlayer() {
+			return player;
+		}
+		
+		public boolean isBlack() {
+			return isBlack;
+		}
+		
+		/**
+		 * Get the Zobrist key of the position the move was played from.
+		 *
+		 * @return the key of the position (see {@link GameState#getKey()}).
+		 */
+		public long getPositionKey() {
+			return positionKey;
+		}
+		
+		/**
+		 * Get the tile the moved piece left.
+		 *
+		 * @return the index of the tile, -1 if the piece came back to its tile.
+		 */
+		public int getStartIndex() {
+			return startIndex;
+		}
+		
+		/**
+		 * Get the tile the moved piece reached.
+		 *
+		 * @return the index of the tile, -1 if the piece came back to its tile.
+		 */
+		public int getEndIndex() {
+			return endIndex;
+		}
+		
+		public int getCaptures() {
+			return captures;
+		}
+		
+		/**
+		 * Get the move in the notation of the tile indices: start and end joined
+		 * by {@code x} for a capture, by {@code -} otherwise.
+		 *
+		 * @return the notation of the move.
+		 */
+		public String getNotation() {
+			String start = startIndex < 0 ? "?" : "" + startIndex;
+			String end = endIndex < 0 ? "?" : "" + endIndex;
+			return start + (captures > 0 ? "x" : "-") + end;
+		}
+		
+		/**
+		 * Get the time spent on the move.
+		 *
+		 * @return the time in nanoseconds.
+		 */
+		public long getTime() {
+			return time;
+		}
+		
+		/**
+		 * Get the nodes expanded by the search of the move.
+		 *
+		 * @return the number of nodes, -1 if the player doesn't search.
+		 */
+		public long getNodes() {
+			return nodes;
+		}
+		
+		public int getDepth() {
+			return depth;
+		}
+		
+		/**
+		 * Get the static evaluation of the position reached, for the player who moved.
+		 *
+		 * @return the value of the position (see {@link GameState#value(boolean)}).
+		 */
+		public double getEval() {
+			return eval;
+		}
+		
+		/**
+		 * Get the statistics of the search of the move.
+		 *
+		 * @return the statistics, {@link SearchStats#EMPTY} if the player doesn't search.
+		 */
+		public SearchStats getSearchStats() {
+			return search;
+		}
+	}
+	
+	/**
+	 * The {@code Report} class aggregates the results of the games of a tournament.
+	 */
+	public static class Report {
+		
+		private final int numMatch;
+		
+		private final int threads;
+		
+		private int gamesPlayed;
+		
+		/** Time required to play all the games in nanoseconds. */
+		private long elapsedTime;
+		
+		private final PlayerStats player1 = new PlayerStats();
+		
+		private final PlayerStats player2 = new PlayerStats();
+		
+		Report(int numMatch, int threads) {
+			this.numMatch = numMatch;
+			this.threads = threads;
+		}
+		
+		void add(GameRecord record) {
+			gamesPlayed++;
+			player1.merge(record.player1);
+			player2.merge(record.player2);
+		}
+		
+		public int getGamesPlayed() {
+			return gamesPlayed;
+		}
+		
+		/**
+		 * Get the time required to play all the games.
+		 *
+		 * @return the time in nanoseconds.
+		 */
+		public long getElapsedTime() {
+			return elapsedTime;
+		}
+		
+		public PlayerStats getPlayer1() {
+			return player1;
+		}
+		
+		public PlayerStats getPlayer2() {
+			return player2;
+		}
+		
+		/**
+		 * Print the final report of the tournament (times in nanoseconds).
+		 *
+		 * @param out         the stream to print to.
+		 * @param player1Name the name of the first player.
+		 * @param player2Name the name of the second player.
+		 */
+		public void print(PrintStream out, String player1Name, String player2Name) {
+			out.println("*** FINAL REPORT ***:");
+			out.println("Player 1: " + player1Name);
+			out.println("Player 2: " + player2Name);
+			out.println("Number of games simulated: " + gamesPlayed + "/" + numMatch);
+			out.println("Games played at the same time: " + threads);
+			out.println("Time required to simulate all the games: " + elapsedTime);
+			out.println("Draws: " + player1.draws);
+			printPlayer(out, "== P1 ==", player1);
+			out.println();
+			printPlayer(out, "== P2 ==", player2);
+		}
+		
+		private static void printPlayer(PrintStream out, String title, PlayerStats stats) {
+			out.println(title);
+			out.println("  - Average time for a move: " + stats.getAverageMoveTime());
+			out.printf("  - Average max depth for a move: %.2f%n", stats.getAverageDepth());
+			out.println("  - Total number of player moves: " + stats.moves);
+			out.println("  - Wins: " + stats.wins);
+			out.println("  - Defeats: " + stats.defeats);
+			if (stats.nodes > 0) {
+				out.printf(Locale.ROOT, "  - Search: %d nodes, %.0f nodes/s, %d evals, %.1f%% first move cutoffs, EBF %.2f",
+						stats.nodes, stats.getNodesPerSecond(), stats.evaluations, stats.getFirstMoveCutoffRate() * 100,
+						stats.getAverageBranchingFactor());
+				if (stats.tableProbes > 0) out.printf(Locale.ROOT, ", TT hits %.1f%%", stats.getTableHitRate() * 100);
+				out.println();
+			}
+			out.println("  - Move times: " + stats.getLatency().toMillisString());
+			for (GamePhase phase : GamePhase.values()) {
+				out.println("    - " + phase + ": " + stats.getLatency(phase).toMillisString());
+			}
+			out.println("========");
+		}
+	}
+}
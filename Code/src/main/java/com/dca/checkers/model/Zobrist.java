@@ -0,0 +1,75 @@
+package com.dca.checkers.model;
+
+import java.util.SplittableRandom;
+
+/**
+ * The {@code Zobrist} class holds the random keys used to hash a game state
+ * into a 64-bit value. The key of a state is the XOR of the keys of every
+ * piece on its tile, of the side to move and of the tile of a pending skip,
+ * so that it can be updated incrementally each time one of them changes.
+ * Keys are generated from a fixed seed: the same position has the same key
+ * in every run.
+ */
+public final class Zobrist {
+	
+	/** Seed of the generator of the keys. */
+	private static final long SEED = 0x5DEECE66DL;
+	
+	/** Keys of the pieces, indexed by {@code (id & 3) * 32 + index}. */
+	private static final long[] PIECES = new long[4 * 32];
+	
+	/** Keys of a pending skip, indexed by the tile of the skipping piece. */
+	private static final long[] SKIPS = new long[32];
+	
+	/** Key added when it is player 1's turn. */
+	private static final long P1_TURN;
+	
+	static {
+		SplittableRandom rnd = new SplittableRandom(SEED);
+		for (int i = 0; i < PIECES.length; i++) {
+			PIECES[i] = rnd.nextLong();
+		}
+		for (int i = 0; i < SKIPS.length; i++) {
+			SKIPS[i] = rnd.nextLong();
+		}
+		P1_TURN = rnd.nextLong();
+	}
+	
+	private Zobrist() {
+	}
+	
+	/**
+	 * Gets the key of a piece on a tile.
+	 *
+	 * @param id    the ID of the piece (one of the checker or king IDs of {@link Board}).
+	 * @param index the index of the tile (from 0 to 31 inclusive).
+	 * @return the key of the piece, or 0 if the ID is {@link Board#EMPTY}.
+	 */
+	public static long piece(byte id, int index) {
+		if (id != Board.BLACK_CHECKER && id != Board.BLACK_KING
+				&& id != Board.WHITE_CHECKER && id != Board.WHITE_KING) {
+			return 0;
+		}
+		return PIECES[(id & 3) * 32 + index];
+	}
+	
+	/**
+	 * Gets the key of a pending skip.
+	 *
+	 * @param skipIndex the index of the piece that must continue skipping, or -1 if none.
+	 * @return the key of the skip, or 0 if there isn't a pending skip.
+	 */
+	public static long skip(int skipIndex) {
+		return Board.isValidIndex(skipIndex)? SKIPS[skipIndex] : 0;
+	}
+	
+	/**
+	 * Gets the key of the side to move.
+	 *
+	 * @param isP1Turn the flag indicating if it is player 1's turn.
+	 * @return the key of the side to move.
+	 */
+	public static long turn(boolean isP1Turn) {
+		return isP1Turn? P1_TURN : 0;
+	}
+}
@@ -0,0 +1,47 @@
+package com.dca.checkers.monitor;
+
+/**
+ * The {@code EngineMXBean} interface is the management interface of an AI
+ * engine, registered as {@code com.dca.checkers:type=Engine,name=<class>}
+ * and shared by all the instances of the engine.
+ * <p>
+ * Node limit and time budget override the settings of every instance when
+ * set to a non negative value, -1 restores them; engines without such a
+ * setting ignore it.
+ */
+public interface EngineMXBean {
+	
+	long getSearches();
+	
+	/** The depth of the last iteration completed by the last search. */
+	int getCurrentDepth();
+	
+	/** The max depth reached by the last search. */
+	int getMaxDepthReached();
+	
+	/** Nodes per second of the last search, quiescence nodes included. */
+	double getNodesPerSecond();
+	
+	/** Nodes per second of all the searches since the last reset. */
+	double getAverageNodesPerSecond();
+	
+	double getSearchesPerSecond();
+	
+	/** Average time of a search in milliseconds. */
+	double getAverageMoveLatency();
+	
+	/** 99th percentile of the times of the searches in milliseconds. */
+	double getP99MoveLatency();
+	
+	long getNodeLimit();
+	
+	void setNodeLimit(long nodeLimit);
+	
+	/** Time budget of a move in milliseconds. */
+	long getTimeBudget();
+	
+	void setTimeBudget(long millis);
+	
+	/** Forget the searches counted so far. */
+	void resetStatistics();
+}
@@ -0,0 +1,151 @@
+package com.dca.checkers.monitor;
+
+import com.dca.checkers.model.SearchStats;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The {@code EngineMonitor} class collects the searches of all the instances
+ * of an AI engine and holds the settings changed through JMX. There is one
+ * monitor for each engine, registered the first time it is requested.
+ */
+public class EngineMonitor implements EngineMXBean {
+	
+	private static final Map<String, EngineMonitor> MONITORS = new ConcurrentHashMap<>();
+	
+	private final MoveMetrics searches = new MoveMetrics();
+	
+	/** Nodes (quiescence ones included) and nanoseconds of the searches since the last reset. */
+	private final LongAdder nodes = new LongAdder();
+	
+	private final LongAdder searchTime = new LongAdder();
+	
+	/** The statistics of the last search of any instance. */
+	private volatile SearchStats last = SearchStats.EMPTY;
+	
+	/** Overrides of the settings of the instances, -1 if not set. */
+	private volatile long nodeLimit = -1;
+	
+	private volatile long timeBudget = -1;
+	
+	private EngineMonitor() {
+	}
+	
+	/**
+	 * Get the monitor of an engine, creating and registering it the first time.
+	 *
+	 * @param engine the class of the engine.
+	 * @return the monitor shared by all the instances of the engine.
+	 */
+	public static EngineMonitor of(Class<?> engine) {
+		return MONITORS.computeIfAbsent(engine.getSimpleName(), name -> {
+			EngineMonitor monitor = new EngineMonitor();
+			Monitoring.register("type=Engine,name=" + name, monitor);
+			return monitor;
+		});
+	}
+	
+	/**
+	 * Count a search.
+	 *
+	 * @param stats the statistics of the search.
+	 */
+	public void record(SearchStats stats) {
+		searches.record(stats.getElapsedTime());
+		nodes.add(stats.getNodes() + stats.getQuiescenceNodes());
+		searchTime.add(stats.getElapsedTime());
+		last = stats;
+	}
+	
+	/**
+	 * Get the node limit to use for a search.
+	 *
+	 * @param own the node limit of the instance.
+	 * @return the node limit set through JMX, if any, the one of the instance otherwise.
+	 */
+	public long nodeLimit(long own) {
+		long override = nodeLimit;
+		return override < 0 ? own : Math.max(1, override);
+	}
+	
+	/**
+	 * Get the time budget to use for a search.
+	 *
+	 * @param own the time budget of the instance in milliseconds.
+	 * @return the time budget set through JMX, if any, the one of the instance otherwise.
+	 */
+	public long timeBudget(long own) {
+		long override = timeBudget;
+		return override < 0 ? own : override;
+	}
+	
+	@Override
+	public long getSearches() {
+		return searches.getMoves();
+	}
+	
+	@Override
+	public int getCurrentDepth() {
+		return last.getCompletedDepth();
+	}
+	
+	@Override
+	public int getMaxDepthReached() {
+		return last.getMaxDepthReached();
+	}
+	
+	@Override
+	public double getNodesPerSecond() {
+		return last.getNodesPerSecond();
+	}
+	
+	@Override
+	public double getAverageNodesPerSecond() {
+		long time = searchTime.sum();
+		return time <= 0 ? 0 : nodes.sum() * 1e9 / time;
+	}
+	
+	@Override
+	public double getSearchesPerSecond() {
+		return searches.getMovesPerSecond();
+	}
+	
+	@Override
+	public double getAverageMoveLatency() {
+		return searches.getAverageMillis();
+	}
+	
+	@Override
+	public double getP99MoveLatency() {
+		return searches.getPercentileMillis(99);
+	}
+	
+	@Override
+	public long getNodeLimit() {
+		return nodeLimit;
+	}
+	
+	@Override
+	public void setNodeLimit(long nodeLimit) {
+		this.nodeLimit = Math.max(-1, nodeLimit);
+	}
+	
+	@Override
+	public long getTimeBudget() {
+		return timeBudget;
+	}
+	
+	@Override
+	public void setTimeBudget(long millis) {
+		this.timeBudget = Math.max(-1, millis);
+	}
+	
+	@Override
+	public void resetStatistics() {
+		searches.reset();
+		nodes.reset();
+		searchTime.reset();
+	}
+}
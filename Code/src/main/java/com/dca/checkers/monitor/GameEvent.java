@@ -0,0 +1,56 @@
+package com.dca.checkers.monitor;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * The {@code GameEvent} class is a Flight Recorder event marking a change of
+ * the life cycle of a game (start, pause, resume, end) or a move through its
+ * history (undo, redo). It is disabled by default, like all the events of the game.
+ */
+@Name("com.dca.checkers.Game")
+@Label("Game")
+@Category({"Checkers", "Game"})
+@Description("A change of the life cycle or of the history of a game")
+@Enabled(false)
+@StackTrace(false)
+public class GameEvent extends jdk.jfr.Event {
+	
+	public static final String START = "start";
+	public static final String PAUSE = "pause";
+	public static final String RESUME = "resume";
+	public static final String END = "end";
+	public static final String UNDO = "undo";
+	public static final String REDO = "redo";
+	
+	@Label("Action")
+	public String action;
+	
+	@Label("History Index")
+	@Description("Position of the current game state in the history of the game")
+	public int historyIndex;
+	
+	@Label("Result")
+	@Description("The result of the game, for the end action")
+	public String result;
+	
+	/**
+	 * Commit an event, if enabled.
+	 *
+	 * @param action       the action, one of the constants of this class.
+	 * @param historyIndex the position of the current game state in the history.
+	 * @param result       the result of the game, null if it isn't over.
+	 */
+	public static void emit(String action, int historyIndex, String result) {
+		GameEvent event = new GameEvent();
+		if (!event.isEnabled()) return;
+		event.action = action;
+		event.historyIndex = historyIndex;
+		event.result = result;
+		event.commit();
+	}
+}
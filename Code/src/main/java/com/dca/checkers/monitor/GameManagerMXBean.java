@@ -0,0 +1,31 @@
+package com.dca.checkers.monitor;
+
+/**
+ * The {@code GameManagerMXBean} interface is the management interface of a
+ * game manager, registered as {@code com.dca.checkers:type=GameManager,name=<n>}.
+ * Move times only count the moves of the AI players.
+ */
+public interface GameManagerMXBean {
+	
+	int getGamesInProgress();
+	
+	long getGamesCompleted();
+	
+	long getMoves();
+	
+	double getMovesPerSecond();
+	
+	/** Average time of a move in milliseconds. */
+	double getAverageMoveLatency();
+	
+	/** 99th percentile of the times of the moves in milliseconds. */
+	double getP99MoveLatency();
+	
+	/** Milliseconds waited before a computer player takes a move. */
+	int getAIDelay();
+	
+	void setAIDelay(int millis);
+	
+	/** Forget the moves counted so far. */
+	void resetStatistics();
+}
@@ -0,0 +1,54 @@
+package com.dca.checkers.monitor;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+
+/**
+ * The {@code Monitoring} class registers the MBeans of the application on the
+ * platform MBean server, under the {@value #DOMAIN} domain. Monitoring is
+ * never worth a failure: registration errors are only reported.
+ */
+public final class Monitoring {
+	
+	public static final String DOMAIN = "com.dca.checkers";
+	
+	private Monitoring() {
+	}
+	
+	/**
+	 * Register an MBean, replacing the one with the same name if any.
+	 *
+	 * @param properties the key properties of the name, e.g. {@code type=Engine,name=AIMinMax}.
+	 * @param mbean      the MBean.
+	 * @return the name of the MBean, null if it could not be registered.
+	 */
+	public static ObjectName register(String properties, Object mbean) {
+		try {
+			MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+			ObjectName name = new ObjectName(DOMAIN + ":" + properties);
+			if (server.isRegistered(name)) server.unregisterMBean(name);
+			server.registerMBean(mbean, name);
+			return name;
+		} catch (JMException e) {
+			System.err.println("Unable to register the MBean " + properties + ": " + e.getMessage());
+			return null;
+		}
+	}
+	
+	/**
+	 * Unregister an MBean, if registered.
+	 *
+	 * @param name the name of the MBean, null for none.
+	 */
+	public static void unregister(ObjectName name) {
+		if (name == null) return;
+		try {
+			MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+			if (server.isRegistered(name)) server.unregisterMBean(name);
+		} catch (JMException e) {
+			System.err.println("Unable to unregister the MBean " + name + ": " + e.getMessage());
+		}
+	}
+}
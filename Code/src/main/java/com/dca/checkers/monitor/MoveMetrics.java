@@ -0,0 +1,66 @@
+package com.dca.checkers.monitor;
+
+import com.dca.checkers.model.LatencyHistogram;
+
+/**
+ * The {@code MoveMetrics} class collects the times of the moves made by any
+ * number of threads, to be read at any time by a monitoring tool. Reads and
+ * writes are synchronized: they are rare compared to the work of a move.
+ */
+public class MoveMetrics {
+	
+	private LatencyHistogram latency = new LatencyHistogram();
+	
+	/** Time (as {@link System#nanoTime()}) of the last reset. */
+	private long resetTime = System.nanoTime();
+	
+	/**
+	 * Count a move.
+	 *
+	 * @param time the time spent on the move in nanoseconds.
+	 */
+	public synchronized void record(long time) {
+		latency.record(time);
+	}
+	
+	/**
+	 * Forget the moves counted so far.
+	 */
+	public synchronized void reset() {
+		latency = new LatencyHistogram();
+		resetTime = System.nanoTime();
+	}
+	
+	public synchronized long getMoves() {
+		return latency.getCount();
+	}
+	
+	/**
+	 * Get the moves made per second since the last reset.
+	 *
+	 * @return the number of moves per second.
+	 */
+	public synchronized double getMovesPerSecond() {
+		long elapsed = System.nanoTime() - resetTime;
+		return elapsed <= 0 ? 0 : latency.getCount() * 1e9 / elapsed;
+	}
+	
+	/**
+	 * Get the average time of a move since the last reset.
+	 *
+	 * @return the time in milliseconds, 0 if no move has been made.
+	 */
+	public synchronized double getAverageMillis() {
+		return latency.getMean() / 1e6;
+	}
+	
+	/**
+	 * Get the time that the specified percentage of the moves since the last reset did not exceed.
+	 *
+	 * @param percentile the percentage, from 0 to 100.
+	 * @return the time in milliseconds, 0 if no move has been made.
+	 */
+	public synchronized double getPercentileMillis(double percentile) {
+		return latency.getValueAtPercentile(percentile) / 1e6;
+	}
+}
@@ -0,0 +1,68 @@
+package com.dca.checkers.monitor;
+
+import com.dca.checkers.model.Move;
+import com.dca.checkers.model.SearchStats;
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * The {@code SearchEvent} class is a Flight Recorder event that spans the
+ * search of a move by an AI player, from its begin to the move chosen.
+ * <p>
+ * It is disabled by default: enable it in the settings (.jfc file) of the
+ * recording, e.g. {@code -XX:StartFlightRecording:settings=checkers.jfc}.
+ * When disabled, only the begin time is taken.
+ */
+@Name("com.dca.checkers.Search")
+@Label("Search")
+@Category({"Checkers", "AI"})
+@Description("The search of a move by an AI player")
+@Enabled(false)
+@StackTrace(false)
+public class SearchEvent extends jdk.jfr.Event {
+	
+	@Label("Engine")
+	String engine;
+	
+	@Label("Nodes")
+	@Description("Nodes expanded, quiescence nodes excluded")
+	long nodes;
+	
+	@Label("Quiescence Nodes")
+	long quiescenceNodes;
+	
+	@Label("Evaluations")
+	long evaluations;
+	
+	@Label("Completed Depth")
+	int completedDepth;
+	
+	@Label("Max Depth")
+	int maxDepth;
+	
+	@Label("Best Move")
+	String bestMove;
+	
+	/**
+	 * End the search and commit the event, if it is enabled.
+	 *
+	 * @param engine   the AI that searched the move.
+	 * @param stats    the statistics of the search.
+	 * @param bestMove the encoded move chosen.
+	 */
+	public void commit(Object engine, SearchStats stats, int bestMove) {
+		if (!shouldCommit()) return;
+		this.engine = engine.getClass().getSimpleName();
+		this.nodes = stats.getNodes();
+		this.quiescenceNodes = stats.getQuiescenceNodes();
+		this.evaluations = stats.getEvaluations();
+		this.completedDepth = stats.getCompletedDepth();
+		this.maxDepth = stats.getMaxDepthReached();
+		this.bestMove = Move.startOf(bestMove) + (Move.isSkip(bestMove) ? "x" : "-") + Move.endOf(bestMove);
+		commit();
+	}
+}
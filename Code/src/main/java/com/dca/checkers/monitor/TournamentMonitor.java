@@ -0,0 +1,76 @@
+package com.dca.checkers.monitor;
+
+import com.dca.checkers.model.Tournament;
+
+/**
+ * The {@code TournamentMonitor} class exposes a {@link Tournament} run without
+ * a game manager, e.g. by the command line simulations, through the same
+ * management interface as a game manager. Its move listener must be given
+ * the moves of the tournament (see {@link #record(Tournament.MoveRecord)}).
+ * Tournament games are played without any delay: the AI delay is always 0.
+ */
+public class TournamentMonitor implements GameManagerMXBean {
+	
+	private final Tournament tournament;
+	
+	/** The times of the moves, since the last reset. */
+	private final MoveMetrics moveMetrics = new MoveMetrics();
+	
+	public TournamentMonitor(Tournament tournament) {
+		this.tournament = tournament;
+	}
+	
+	/**
+	 * Count a move of the tournament.
+	 *
+	 * @param move the record of the move.
+	 */
+	public void record(Tournament.MoveRecord move) {
+		moveMetrics.record(move.getTime());
+	}
+	
+	@Override
+	public int getGamesInProgress() {
+		return tournament.getGamesInProgress();
+	}
+	
+	@Override
+	public long getGamesCompleted() {
+		return tournament.getGamesCompleted();
+	}
+	
+	@Override
+	public long getMoves() {
+		return moveMetrics.getMoves();
+	}
+	
+	@Override
+	public double getMovesPerSecond() {
+		return moveMetrics.getMovesPerSecond();
+	}
+	
+	@Override
+	public double getAverageMoveLatency() {
+		return moveMetrics.getAverageMillis();
+	}
+	
+	@Override
+	public double getP99MoveLatency() {
+		return moveMetrics.getPercentileMillis(99);
+	}
+	
+	@Override
+	public int getAIDelay() {
+		return 0;
+	}
+	
+	@Override
+	public void setAIDelay(int millis) {
+		//Tournament games have no delay
+	}
+	
+	@Override
+	public void resetStatistics() {
+		moveMetrics.reset();
+	}
+}
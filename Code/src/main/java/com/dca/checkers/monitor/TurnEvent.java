@@ -0,0 +1,36 @@
+package com.dca.checkers.monitor;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * The {@code TurnEvent} class is a Flight Recorder event that spans the turn
+ * of a player in a game managed by the user interface, AI delay included.
+ * It is disabled by default, like all the events of the game.
+ */
+@Name("com.dca.checkers.Turn")
+@Label("Turn")
+@Category({"Checkers", "Game"})
+@Description("The turn of a player, from its begin to the move taken")
+@Enabled(false)
+@StackTrace(false)
+public class TurnEvent extends jdk.jfr.Event {
+	
+	@Label("Player")
+	@Description("1 or 2")
+	public int player;
+	
+	@Label("Human")
+	public boolean human;
+	
+	@Label("Game Phase")
+	public String phase;
+	
+	@Label("Moved")
+	@Description("False if the turn ended without a move, e.g. because the game has been paused")
+	public boolean moved;
+}
@@ -0,0 +1,296 @@
+package com.dca.checkers.tools;
+
+import com.dca.checkers.model.GameState;
+import com.dca.checkers.model.Move;
+import com.dca.checkers.model.MoveList;
+
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * The {@code Perft} class counts the positions reachable from a game state
+ * in a fixed number of plies, to measure the speed of move generation and to
+ * check it against known node counts. A ply is a whole turn: a capture
+ * sequence counts as a single move, as in {@link GameState#generateMoves(MoveList)}.
+ * <p>
+ * The count can be split by root move (divide), the root moves can be
+ * searched in parallel on a {@link ForkJoinPool}, and an optional hash table
+ * reuses the counts of transpositions.
+ */
+public class Perft {
+	
+	/**
+	 * Test positions (as {@link GameState#getGameState()}) with the expected
+	 * number of leaves at each depth, starting from 1.
+	 */
+	private static final Object[][] SUITE = {
+			{"Initial position", "666666666666000000004444444444440-1",
+					new long[]{7, 49, 302, 1469, 7361, 36473, 177532}},
+			{"Opening with captures", "666600060664660000004000444644440-1",
+					new long[]{6, 57, 308, 2195, 11057, 66909, 318158}},
+			{"Middle game with kings", "066605060000000060600000444044440-1",
+					new long[]{10, 59, 275, 1690, 8207, 48470, 278079}},
+			{"Kings endgame", "600060006046000004000440000000771-1",
+					new long[]{8, 43, 235, 1306, 7086, 36688, 199001}},
+	};
+	
+	/** Number of plies handled by a single hash table entry: deeper counts are never stored. */
+	private static final int MAX_HASH_DEPTH = 63;
+	
+	/** Number of 16 bytes entries of the hash table, a power of 2 (0 if no hash table is used). */
+	private final int hashEntries;
+	
+	/** Keys of the hash table entries, XORed with their data to detect torn writes. */
+	private final AtomicLongArray hashKeys;
+	
+	/** Data of the hash table entries: the count and, in the lowest 6 bits, the depth. */
+	private final AtomicLongArray hashData;
+	
+	/** Flag that tells if the root moves are searched in parallel. */
+	private final boolean parallel;
+	
+	/**
+	 * Creates a perft counter.
+	 *
+	 * @param hashSizeMb the size of the hash table in megabytes, 0 for no hash table.
+	 * @param parallel   flag that tells if the root moves are searched in parallel.
+	 */
+	public Perft(int hashSizeMb, boolean parallel) {
+		int entries = 0;
+		if (hashSizeMb > 0) {
+			entries = Integer.highestOneBit((int) Math.min(1 << 30, hashSizeMb * (1L << 20) / 16));
+		}
+		this.hashEntries = entries;
+		this.hashKeys = new AtomicLongArray(entries);
+		this.hashData = new AtomicLongArray(entries);
+		this.parallel = parallel;
+	}
+	
+	/**
+	 * Counts the leaves of the tree of the specified depth.
+	 *
+	 * @param state the root game state (not modified).
+	 * @param depth the number of plies.
+	 * @return the number of leaves.
+	 */
+	public long perft(GameState state, int depth) {
+		long total = 0;
+		for (long count : divide(state, depth)) {
+			total += count;
+		}
+		return depth <= 0 ? 1 : total;
+	}
+	
+	/**
+	 * Counts the leaves of the tree of the specified depth under each root move.
+	 *
+	 * @param state the root game state (not modified).
+	 * @param depth the number of plies (at least 1).
+	 * @return the number of leaves for each root move, in the order of {@link GameState#generateMoves(MoveList)}.
+	 */
+	public long[] divide(GameState state, int depth) {
+		MoveList rootMoves = new MoveList();
+		state.generateMoves(rootMoves);
+		long[] counts = new long[rootMoves.size()];
+		if (depth <= 0) return counts;
+		
+		List<Runnable> tasks = new ArrayList<>(rootMoves.size());
+		for (int i = 0; i < rootMoves.size(); i++) {
+			int index = i;
+			GameState child = state.copy();
+			child.apply(rootMoves.get(i), rootMoves.getCaptured(i));
+			tasks.add(() -> counts[index] = count(child, depth - 1, new MoveList[depth]));
+		}
+		if (parallel) {
+			ForkJoinPool.commonPool().submit(() -> tasks.parallelStream().forEach(Runnable::run)).join();
+		} else {
+			tasks.forEach(Runnable::run);
+		}
+		return counts;
+	}
+	
+	/**
+	 * Counts the leaves under a game state, applying and undoing moves on it.
+	 *
+	 * @param g         the game state.
+	 * @param depth     the remaining number of plies.
+	 * @param moveLists reusable move buffers, one for each remaining ply.
+	 * @return the number of leaves.
+	 */
+	private long count(GameState g, int depth, MoveList[] moveLists) {
+		if (depth == 0) return 1;
+		
+		long key = g.getKey();
+		long cached = probe(key, depth);
+		if (cached >= 0) return cached;
+		
+		if (moveLists[depth] == null) moveLists[depth] = new MoveList();
+		MoveList moves = moveLists[depth];
+		g.generateMoves(moves);
+		
+		//The moves of the last ply don't need to be applied
+		long nodes = 0;
+		if (depth == 1) {
+			nodes = moves.size();
+		} else {
+			for (int i = 0; i < moves.size(); i++) {
+				int undoToken = g.apply(moves.get(i), moves.getCaptured(i));
+				nodes += count(g, depth - 1, moveLists);
+				g.undo(undoToken);
+			}
+		}
+		
+		store(key, depth, nodes);
+		return nodes;
+	}
+	
+	/**
+	 * Look for the count of a game state in the hash table.
+	 *
+	 * @param key   the Zobrist key of the game state.
+	 * @param depth the remaining number of plies.
+	 * @return the count, or -1 if not found.
+	 */
+	private long probe(long key, int depth) {
+		if (hashEntries == 0 || depth < 2 || depth > MAX_HASH_DEPTH) return -1;
+		int i = index(key, depth);
+		long data = hashData.get(i);
+		if ((hashKeys.get(i) ^ data) != key || (data & MAX_HASH_DEPTH) != depth) return -1;
+		return data >>> 6;
+	}
+	
+	/**
+	 * Save the count of a game state in the hash table, replacing the previous entry.
+	 *
+	 * @param key   the Zobrist key of the game state.
+	 * @param depth the remaining number of plies.
+	 * @param nodes the number of leaves.
+	 */
+	private void store(long key, int depth, long nodes) {
+		if (hashEntries == 0 || depth < 2 || depth > MAX_HASH_DEPTH) return;
+		int i = index(key, depth);
+		long data = nodes << 6 | depth;
+		hashData.set(i, data);
+		hashKeys.set(i, key ^ data);
+	}
+	
+	/**
+	 * Get the hash table entry of a game state at a depth.
+	 */
+	private int index(long key, int depth) {
+		long h = key ^ (depth * 0x9E3779B97F4A7C15L);
+		return (int) (h ^ (h >>> 32)) & (hashEntries - 1);
+	}
+	
+	/**
+	 * Get the notation of an encoded move: start and end index, joined by
+	 * {@code x} for a capture sequence (followed by the number of pieces captured).
+	 *
+	 * @param move     the encoded move.
+	 * @param captured the mask of the tiles captured by the move.
+	 * @return the notation of the move.
+	 */
+	public static String toNotation(int move, int captured) {
+		if (!Move.isSkip(move)) return Move.startOf(move) + "-" + Move.endOf(move);
+		return Move.startOf(move) + "x" + Move.endOf(move) + " (" + Integer.bitCount(captured) + ")";
+	}
+	
+	/**
+	 * Run perft on a game state, printing the count of each depth up to the
+	 * specified one (or the count of each root move) and the speed.
+	 *
+	 * @param state  the root game state.
+	 * @param depth  the maximum number of plies.
+	 * @param divide flag that tells if the count of the last depth must be split by root move.
+	 * @param out    the stream to print to.
+	 * @return the number of leaves of the last depth.
+	 */
+	public long run(GameState state, int depth, boolean divide, PrintStream out) {
+		long nodes = 0;
+		for (int d = divide ? depth : 1; d <= depth; d++) {
+			long start = System.nanoTime();
+			if (divide) {
+				MoveList rootMoves = new MoveList();
+				state.generateMoves(rootMoves);
+				long[] counts = divide(state, d);
+				nodes = 0;
+				for (int i = 0; i < counts.length; i++) {
+					out.println(toNotation(rootMoves.get(i), rootMoves.getCaptured(i)) + ": " + counts[i]);
+					nodes += counts[i];
+				}
+			} else {
+				nodes = perft(state, d);
+			}
+			long elapsed = System.nanoTime() - start;
+			out.printf("depth %d: %d nodes in %d ms (%.0f nodes/s)%n", d, nodes, elapsed / 1000000,
+					nodes * 1e9 / Math.max(1, elapsed));
+		}
+		return nodes;
+	}
+	
+	/**
+	 * Run perft on the test positions, comparing the counts with the expected ones.
+	 *
+	 * @param depth the maximum number of plies (limited to the known counts).
+	 * @param out   the stream to print to.
+	 * @return true if all the counts are the expected ones.
+	 */
+	public boolean runSuite(int depth, PrintStream out) {
+		boolean ok = true;
+		long totalNodes = 0, totalTime = 0;
+		for (Object[] test : SUITE) {
+			GameState state = new GameState((String) test[1]);
+			long[] expected = (long[]) test[2];
+			for (int d = 1; d <= Math.min(depth, expected.length); d++) {
+				long start = System.nanoTime();
+				long nodes = perft(state, d);
+				totalTime += System.nanoTime() - start;
+				totalNodes += nodes;
+				if (nodes != expected[d - 1]) {
+					ok = false;
+					out.println(test[0] + ", depth " + d + ": " + nodes + " nodes, expected " + expected[d - 1]);
+				}
+			}
+		}
+		out.printf("%s: %d nodes in %d ms (%.0f nodes/s)%n", ok ? "OK" : "FAILED", totalNodes,
+				totalTime / 1000000, totalNodes * 1e9 / Math.max(1, totalTime));
+		return ok;
+	}
+	
+	/**
+	 * Command line entry point.
+	 * Usage: {@code Perft [depth] [-divide] [-parallel] [-hash <mb>] [-suite] [-state <game state>]}.
+	 *
+	 * @param args the command line arguments.
+	 */
+	public static void main(String[] args) {
+		int depth = 6, hashMb = 0;
+		boolean divide = false, parallel = false, suite = false;
+		GameState state = new GameState();
+		try {
+			for (int i = 0; i < args.length; i++) {
+				switch (args[i]) {
+					case "-divide": divide = true; break;
+					case "-parallel": parallel = true; break;
+					case "-suite": suite = true; break;
+					case "-hash": hashMb = Integer.parseInt(args[++i]); break;
+					case "-state": state = new GameState(args[++i]); break;
+					default: depth = Integer.parseInt(args[i]);
+				}
+			}
+		} catch (NumberFormatException | ArrayIndexOutOfBoundsException e) {
+			System.err.println("Usage: Perft [depth] [-divide] [-parallel] [-hash <mb>] [-suite] [-state <game state>]");
+			System.exit(2);
+		}
+		
+		Perft perft = new Perft(hashMb, parallel);
+		if (suite) {
+			if (!perft.runSuite(depth, System.out)) System.exit(1);
+		} else {
+			perft.run(state, depth, divide, System.out);
+		}
+	}
+}
@@ -0,0 +1,155 @@
+package com.dca.checkers.tools;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * The {@code RecordWriter} class streams records to a file, one line each,
+ * on a dedicated thread: the threads producing the records only put them in a
+ * bounded queue, while the writer thread formats them and writes them through
+ * a buffer. Records are never kept once written, so any number of them can be
+ * written with a fixed amount of memory.
+ * <p>
+ * If the writer falls behind by a whole queue of records, the producers wait
+ * for it rather than growing the queue.
+ *
+ * @param <T> the type of the records.
+ */
+public class RecordWriter<T> implements Consumer<T>, AutoCloseable {
+	
+	/** Number of records waiting to be written before the producers wait. */
+	private static final int QUEUE_CAPACITY = 1 << 16;
+	
+	/** Number of records written between two checks of the queue. */
+	private static final int BATCH_SIZE = 1024;
+	
+	/** Put in the queue to stop the writer thread. */
+	private static final Object END = new Object();
+	
+	private final BlockingQueue<Object> queue = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+	
+	private final Writer out;
+	
+	/** Turns a record into a line, without the line separator. */
+	private final Function<T, String> formatter;
+	
+	private final Thread thread;
+	
+	/** The first error occurred formatting or writing a record: the following records are discarded. */
+	private volatile IOException error;
+	
+	/**
+	 * Creates a writer of records to a file, replacing it if it exists.
+	 *
+	 * @param path      the path of the file.
+	 * @param header    the first line of the file, null for none.
+	 * @param formatter turns a record into a line, without the line separator.
+	 * @throws IOException if the file cannot be opened.
+	 */
+	public RecordWriter(Path path, String header, Function<T, String> formatter) throws IOException {
+		this.out = new BufferedWriter(Files.newBufferedWriter(path, StandardCharsets.UTF_8), 1 << 16);
+		this.formatter = formatter;
+		if (header != null) {
+			out.write(header);
+			out.write('\n');
+		}
+		this.thread = new Thread(this::writeRecords, "RecordWriter-" + path.getFileName());
+		this.thread.setDaemon(true);
+		this.thread.start();
+	}
+	
+	/**
+	 * Queue a record to be written, waiting only if the queue is full.
+	 *
+	 * @param record the record.
+	 */
+	@Override
+	public void accept(T record) {
+		try {
+			queue.put(record);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+	
+	/**
+	 * Write the records of the queue until the end of the stream, flushing the
+	 * buffer whenever the queue is empty.
+	 */
+	@SuppressWarnings("unchecked")
+	private void writeRecords() {
+		List<Object> batch = new ArrayList<>(BATCH_SIZE);
+		boolean isOver = false;
+		while (!isOver) {
+			try {
+				batch.add(queue.take());
+			} catch (InterruptedException e) {
+				return;
+			}
+			queue.drainTo(batch, BATCH_SIZE - 1);
+			for (Object record : batch) {
+				if (record == END) {
+					isOver = true;
+				} else if (error == null) {
+					try {
+						out.write(formatter.apply((T) record));
+						out.write('\n');
+					} catch (IOException e) {
+						error = e;
+					} catch (RuntimeException e) {
+						error = new IOException("Cannot format a record", e);
+					}
+				}
+			}
+			batch.clear();
+			if (queue.isEmpty() && error == null) {
+				try {
+					out.flush();
+				} catch (IOException e) {
+					error = e;
+				}
+			}
+		}
+	}
+	
+	/**
+	 * Write all the records queued and close the file. The file is closed only
+	 * once the writer thread is over, even if the calling thread is interrupted
+	 * meanwhile: the interruption is restored afterwards.
+	 *
+	 * @throws IOException if an error occurred formatting or writing a record.
+	 */
+	@Override
+	public void close() throws IOException {
+		boolean interrupted = false;
+		boolean isQueued = false;
+		while (!isQueued) {
+			try {
+				queue.put(END);
+				isQueued = true;
+			} catch (InterruptedException e) {
+				interrupted = true;
+			}
+		}
+		while (thread.isAlive()) {
+			try {
+				thread.join();
+			} catch (InterruptedException e) {
+				interrupted = true;
+			}
+		}
+		if (interrupted) Thread.currentThread().interrupt();
+		out.close();
+		if (error != null) throw error;
+	}
+}
@@ -0,0 +1,447 @@
+package com.dca.checkers.tools;
+
+import com.dca.checkers.ai.AIAlphaBeta;
+import com.dca.checkers.ai.AIMinMax;
+import com.dca.checkers.ai.AIParallelAlphaBeta;
+import com.dca.checkers.ai.AIRandomPlayer;
+import com.dca.checkers.model.GamePhase;
+import com.dca.checkers.model.LatencyHistogram;
+import com.dca.checkers.model.MatchResult;
+import com.dca.checkers.model.Player;
+import com.dca.checkers.model.SearchStats;
+import com.dca.checkers.model.Tournament;
+import com.dca.checkers.monitor.Monitoring;
+import com.dca.checkers.monitor.TournamentMonitor;
+
+import javax.management.ObjectName;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * The {@code Simulate} class runs a simulation from the command line: a
+ * {@link Tournament} between two AI players, without any user interface, so
+ * that it can run on machines without a display. It never loads the Swing
+ * classes of the application.
+ * <p>
+ * A player is specified by its type ({@code random}, {@code minmax},
+ * {@code alphabeta} or {@code parallel}) optionally followed by engine
+ * parameters, e.g. {@code alphabeta:time=200,depth=12}. The parameters are
+ * {@code time} (time budget in ms), {@code deadline} (hard deadline in ms),
+ * {@code depth} (max search depth), {@code table} (transposition table size in MB, by
+ * default {@value #TABLE_MEMORY_MB} MB shared by all the games played at the same time),
+ * {@code threads} (search threads) and {@code nodes} (node limit for each move, ignored
+ * by {@code random}).
+ * <p>
+ * With {@code -seed}, every player of every game gets its own seed derived
+ * from it, so that its choices among moves of equal value don't depend on
+ * the other games. {@code parallel} has nothing to seed: its choices depend
+ * on the timing of its threads. The games are replayed exactly only by
+ * single-threaded players bounded by {@code depth} or {@code nodes} rather than by time.
+ * <p>
+ * A record of every move and of every game can be streamed to files, as CSV
+ * if their names end with {@code .csv}, as JSON lines otherwise (see {@link RecordWriter}).
+ */
+public class Simulate {
+	
+	private static final String USAGE = "Usage: Simulate [-games <n>] [-threads <n>] [-seed <n>] [-format text|csv|json]"
+			+ " [-same-colors] [-p1 <player>] [-p2 <player>] [-move-records <file>] [-game-records <file>]\n"
+			+ "  <player>: random|minmax|alphabeta|parallel[:time=<ms>,deadline=<ms>,depth=<n>,table=<mb>,threads=<n>,nodes=<n>]";
+	
+	/** Memory for the transposition tables of all the players of the games played at the same time, in MB. */
+	private static final int TABLE_MEMORY_MB = 256;
+	
+	/** Options followed by a value. */
+	private static final List<String> OPTIONS = List.of("-games", "-threads", "-seed", "-format", "-p1", "-p2",
+			"-move-records", "-game-records");
+	
+	/** Number of games to play. */
+	private int games = 50;
+	
+	/** Number of games played at the same time. */
+	private int threads = Runtime.getRuntime().availableProcessors();
+	
+	/** Seed of the randomness of the players, null for unseeded players. */
+	private Long seed;
+	
+	/** Output format of the final report: text, csv or json. */
+	private String format = "text";
+	
+	/** Flag that tells if the players swap colors at every game. */
+	private boolean alternateColors = true;
+	
+	/** File where a record of every move is streamed, null for none. */
+	private Path moveRecords;
+	
+	/** File where a record of every game is streamed, null for none. */
+	private Path gameRecords;
+	
+	private PlayerSpec player1 = new PlayerSpec("alphabeta");
+	
+	private PlayerSpec player2 = new PlayerSpec("minmax");
+	
+	/**
+	 * Creates a simulation from command line arguments.
+	 *
+	 * @param args the command line arguments.
+	 * @throws IllegalArgumentException if the arguments are not valid.
+	 */
+	public Simulate(String[] args) {
+		for (int i = 0; i < args.length; i++) {
+			String option = args[i];
+			if (option.equals("-same-colors")) {
+				alternateColors = false;
+				continue;
+			}
+			if (!OPTIONS.contains(option)) {
+				throw new IllegalArgumentException("Unknown option: " + option);
+			}
+			if (i + 1 >= args.length) {
+				throw new IllegalArgumentException("Missing value of " + option);
+			}
+			String value = args[++i];
+			switch (option) {
+				case "-games": games = parsePositive(option, value); break;
+				case "-threads": threads = parsePositive(option, value); break;
+				case "-seed": seed = parseLong(option, value); break;
+				case "-p1": player1 = new PlayerSpec(value); break;
+				case "-p2": player2 = new PlayerSpec(value); break;
+				case "-move-records": moveRecords = Paths.get(value); break;
+				case "-game-records": gameRecords = Paths.get(value); break;
+				case "-format":
+					if (!value.equals("text") && !value.equals("csv") && !value.equals("json")) {
+						throw new IllegalArgumentException("Unknown format: " + value);
+					}
+					format = value;
+					break;
+			}
+		}
+	}
+	
+	/**
+	 * Play the games, printing the progress and the final report, and streaming
+	 * the records of the moves and of the games to their files. While the games
+	 * are played, their progress is exposed as the MBean
+	 * {@code com.dca.checkers:type=GameManager,name=Simulate}.
+	 *
+	 * @param out the stream to print to.
+	 * @return the aggregated results.
+	 * @throws InterruptedException if the thread is interrupted while waiting for the games.
+	 * @throws IOException          if an error occurs writing the records.
+	 */
+	public Tournament.Report run(PrintStream out) throws InterruptedException, IOException {
+		//Every player of the games running has its own table: unless specified, they share a fixed amount of memory
+		int tableSizeMb = Math.max(1, Math.min(AIAlphaBeta.DEFAULT_TABLE_SIZE_MB,
+				TABLE_MEMORY_MB / (2 * Math.min(threads, games))));
+		Tournament tournament = new Tournament(
+				gameIndex -> player1.create(playerSeed(gameIndex, 1), tableSizeMb),
+				gameIndex -> player2.create(playerSeed(gameIndex, 2), tableSizeMb), games);
+		tournament.setThreads(threads);
+		tournament.setAlternateColors(alternateColors);
+		TournamentMonitor monitor = new TournamentMonitor(tournament);
+		ObjectName mbean = Monitoring.register("type=GameManager,name=Simulate", monitor);
+		Tournament.Report report;
+		try (RecordWriter<Tournament.MoveRecord> moveWriter = openMoveRecords();
+		     RecordWriter<Tournament.GameRecord> gameWriter = openGameRecords()) {
+			tournament.setMoveListener(move -> {
+				monitor.record(move);
+				if (moveWriter != null) moveWriter.accept(move);
+			});
+			tournament.setListener(record -> {
+				if (format.equals("text")) {
+					String strResult = record.getWinner() == 1 ? "P1 WIN" : record.getWinner() == 2 ? "P2 WIN" : "DRAW";
+					out.println("Game[Game:" + (record.getGameIndex() + 1) + "/" + games + "]: " + strResult);
+				}
+				if (gameWriter != null) gameWriter.accept(record);
+			});
+			report = tournament.run();
+		} finally {
+			Monitoring.unregister(mbean);
+		}
+		switch (format) {
+			case "csv": printCsv(out, report); break;
+			case "json": printJson(out, report); break;
+			default: report.print(out, player1.toString(), player2.toString());
+		}
+		return report;
+	}
+	
+	/**
+	 * Open the file of the move records, as CSV if its name ends with .csv, as JSON lines otherwise.
+	 *
+	 * @return the writer of the records, null if no file has been specified.
+	 * @throws IOException if the file cannot be opened.
+	 */
+	private RecordWriter<Tournament.MoveRecord> openMoveRecords() throws IOException {
+		if (moveRecords == null) return null;
+		if (isCsv(moveRecords)) {
+			return new RecordWriter<>(moveRecords, "game,ply,player,color,position,move,timeNs,nodes,depth,eval,"
+					+ "completedDepth,qNodes,evals,cutoffs,firstMoveCutoffs,ttProbes,ttHits",
+					m -> m.getGameIndex() + "," + m.getPly() + "," + m.getPlayer() + "," + color(m.isBlack()) + ","
+							+ Long.toHexString(m.getPositionKey()) + "," + m.getNotation() + "," + m.getTime() + ","
+							+ m.getNodes() + "," + m.getDepth() + "," + m.getEval() + "," + toCsv(m.getSearchStats()));
+		}
+		return new RecordWriter<>(moveRecords, null,
+				m -> "{\"type\":\"move\",\"game\":" + m.getGameIndex() + ",\"ply\":" + m.getPly()
+						+ ",\"player\":" + m.getPlayer() + ",\"color\":\"" + color(m.isBlack())
+						+ "\",\"position\":\"" + Long.toHexString(m.getPositionKey()) + "\",\"move\":\"" + m.getNotation()
+						+ "\",\"timeNs\":" + m.getTime() + ",\"nodes\":" + m.getNodes() + ",\"depth\":" + m.getDepth()
+						+ ",\"eval\":" + m.getEval() + ",\"search\":" + toJson(m.getSearchStats()) + "}");
+	}
+	
+	/**
+	 * Open the file of the game records, as CSV if its name ends with .csv, as JSON lines otherwise.
+	 *
+	 * @return the writer of the records, null if no file has been specified.
+	 * @throws IOException if the file cannot be opened.
+	 */
+	private RecordWriter<Tournament.GameRecord> openGameRecords() throws IOException {
+		if (gameRecords == null) return null;
+		if (isCsv(gameRecords)) {
+			return new RecordWriter<>(gameRecords, "game,p1Color,colorResult,winner,plies,timeNs,p1Moves,p1TimeNs,p2Moves,p2TimeNs",
+					g -> g.getGameIndex() + "," + color(g.isPlayer1Black()) + "," + colorResult(g.getResult()) + "," + g.getWinner() + ","
+							+ g.getPlies() + "," + g.getElapsedTime() + "," + g.getPlayer1().getMoves() + ","
+							+ g.getPlayer1().getMoveTime() + "," + g.getPlayer2().getMoves() + "," + g.getPlayer2().getMoveTime());
+		}
+		return new RecordWriter<>(gameRecords, null,
+				g -> "{\"type\":\"game\",\"game\":" + g.getGameIndex() + ",\"p1Color\":\"" + color(g.isPlayer1Black())
+						+ "\",\"colorResult\":\"" + colorResult(g.getResult()) + "\",\"winner\":" + g.getWinner() + ",\"plies\":" + g.getPlies()
+						+ ",\"timeNs\":" + g.getElapsedTime() + ",\"p1Moves\":" + g.getPlayer1().getMoves()
+						+ ",\"p1TimeNs\":" + g.getPlayer1().getMoveTime() + ",\"p2Moves\":" + g.getPlayer2().getMoves()
+						+ ",\"p2TimeNs\":" + g.getPlayer2().getMoveTime() + "}");
+	}
+	
+	private static boolean isCsv(Path path) {
+		return path.getFileName().toString().toLowerCase(Locale.ROOT).endsWith(".csv");
+	}
+	
+	private static String color(boolean isBlack) {
+		return isBlack ? "black" : "white";
+	}
+	
+	/**
+	 * Get the name of the result of a game by color, not to be mistaken for
+	 * the winner by player in the records.
+	 *
+	 * @param result the result, where {@link MatchResult#P1_WIN} is a win of black.
+	 * @return BLACK_WIN, WHITE_WIN or DRAW.
+	 */
+	private static String colorResult(MatchResult result) {
+		switch (result) {
+			case P1_WIN: return "BLACK_WIN";
+			case P2_WIN: return "WHITE_WIN";
+			default: return result.name();
+		}
+	}
+	
+	/**
+	 * Get the seed of a player in a game, so that each game can be replayed on its own.
+	 *
+	 * @param gameIndex the index of the game.
+	 * @param player    the player (1 or 2).
+	 * @return the seed, or null for an unseeded player.
+	 */
+	private Long playerSeed(int gameIndex, int player) {
+		if (seed == null) return null;
+		long h = seed + (2L * gameIndex + player) * 0x9E3779B97F4A7C15L;
+		h = (h ^ (h >>> 30)) * 0xBF58476D1CE4E5B9L;
+		h = (h ^ (h >>> 27)) * 0x94D049BB133111EBL;
+		return h ^ (h >>> 31);
+	}
+	
+	private void printCsv(PrintStream out, Tournament.Report report) {
+		out.println("player,spec,games,wins,draws,defeats,moves,avgMoveTimeNs,avgDepth,elapsedNs,threads,"
+				+ "p50MoveTimeNs,p90MoveTimeNs,p99MoveTimeNs,p999MoveTimeNs,maxMoveTimeNs,"
+				+ "nodes,nodesPerSecond,evals,firstMoveCutoffRate,avgBranchingFactor,ttHitRate");
+		printCsvRow(out, "P1", player1, report, report.getPlayer1());
+		printCsvRow(out, "P2", player2, report, report.getPlayer2());
+	}
+	
+	private void printCsvRow(PrintStream out, String name, PlayerSpec spec, Tournament.Report report,
+	                         Tournament.PlayerStats stats) {
+		LatencyHistogram latency = stats.getLatency();
+		out.println(String.format(Locale.ROOT, "%s,\"%s\",%d,%d,%d,%d,%d,%d,%.3f,%d,%d,%d,%d,%d,%d,%d,%d,%.0f,%d,%.4f,%.3f,%.4f",
+				name, spec,
+				report.getGamesPlayed(), stats.getWins(), stats.getDraws(), stats.getDefeats(), stats.getMoves(),
+				stats.getAverageMoveTime(), stats.getAverageDepth(), report.getElapsedTime(), threads,
+				latency.getValueAtPercentile(50), latency.getValueAtPercentile(90), latency.getValueAtPercentile(99),
+				latency.getValueAtPercentile(99.9), latency.getMax(), stats.getNodes(), stats.getNodesPerSecond(),
+				stats.getEvaluations(), stats.getFirstMoveCutoffRate(), stats.getAverageBranchingFactor(),
+				stats.getTableHitRate()));
+	}
+	
+	private void printJson(PrintStream out, Tournament.Report report) {
+		out.println(String.format(Locale.ROOT, "{\"games\":%d,\"threads\":%d,\"elapsedNs\":%d,\"p1\":%s,\"p2\":%s}",
+				report.getGamesPlayed(), threads, report.getElapsedTime(),
+				toJson(player1, report.getPlayer1()), toJson(player2, report.getPlayer2())));
+	}
+	
+	private static String toJson(PlayerSpec spec, Tournament.PlayerStats stats) {
+		StringBuilder phases = new StringBuilder();
+		for (GamePhase phase : GamePhase.values()) {
+			phases.append(phases.length() == 0 ? "" : ",").append('"').append(phase.name().toLowerCase(Locale.ROOT))
+					.append("\":").append(toJson(stats.getLatency(phase)));
+		}
+		return String.format(Locale.ROOT, "{\"spec\":\"%s\",\"wins\":%d,\"draws\":%d,\"defeats\":%d,\"moves\":%d,"
+						+ "\"avgMoveTimeNs\":%d,\"avgDepth\":%.3f,\"nodes\":%d,\"nodesPerSecond\":%.0f,\"evals\":%d,"
+						+ "\"firstMoveCutoffRate\":%.4f,\"avgBranchingFactor\":%.3f,\"ttHitRate\":%.4f,"
+						+ "\"moveTimeNs\":%s,\"phases\":{%s}}", spec, stats.getWins(),
+				stats.getDraws(), stats.getDefeats(), stats.getMoves(), stats.getAverageMoveTime(), stats.getAverageDepth(),
+				stats.getNodes(), stats.getNodesPerSecond(), stats.getEvaluations(), stats.getFirstMoveCutoffRate(),
+				stats.getAverageBranchingFactor(), stats.getTableHitRate(), toJson(stats.getLatency()), phases);
+	}
+	
+	private static String toCsv(SearchStats search) {
+		return search.getCompletedDepth() + "," + search.getQuiescenceNodes() + "," + search.getEvaluations() + ","
+				+ search.getBetaCutoffs() + "," + search.getFirstMoveCutoffs() + "," + search.getTableProbes() + ","
+				+ search.getTableHits();
+	}
+	
+	private static String toJson(SearchStats search) {
+		return "{\"completedDepth\":" + search.getCompletedDepth() + ",\"qNodes\":" + search.getQuiescenceNodes()
+				+ ",\"evals\":" + search.getEvaluations() + ",\"cutoffs\":" + search.getBetaCutoffs()
+				+ ",\"firstMoveCutoffs\":" + search.getFirstMoveCutoffs() + ",\"ttProbes\":" + search.getTableProbes()
+				+ ",\"ttHits\":" + search.getTableHits() + ",\"elapsedNs\":" + search.getElapsedTime() + "}";
+	}
+	
+	private static String toJson(LatencyHistogram latency) {
+		return String.format(Locale.ROOT, "{\"count\":%d,\"p50\":%d,\"p90\":%d,\"p99\":%d,\"p999\":%d,\"max\":%d}",
+				latency.getCount(), latency.getValueAtPercentile(50), latency.getValueAtPercentile(90),
+				latency.getValueAtPercentile(99), latency.getValueAtPercentile(99.9), latency.getMax());
+	}
+	
+	private static int parsePositive(String option, String value) {
+		long n = parseLong(option, value);
+		if (n < 1 || n > Integer.MAX_VALUE) {
+			throw new IllegalArgumentException("Invalid value of " + option + ": " + value);
+		}
+		return (int) n;
+	}
+	
+	private static long parseLong(String option, String value) {
+		try {
+			return Long.parseLong(value);
+		} catch (NumberFormatException e) {
+			throw new IllegalArgumentException("Invalid value of " + option + ": " + value);
+		}
+	}
+	
+	/**
+	 * Command line entry point, see {@link #USAGE}.
+	 *
+	 * @param args the command line arguments.
+	 */
+	public static void main(String[] args) {
+		Simulate simulate;
+		try {
+			simulate = new Simulate(args);
+		} catch (IllegalArgumentException e) {
+			System.err.println(e.getMessage());
+			System.err.println(USAGE);
+			System.exit(2);
+			return;
+		}
+		try {
+			simulate.run(System.out);
+		} catch (InterruptedException e) {
+			System.err.println("The simulation has been interrupted.\n");
+			e.printStackTrace();
+			System.exit(1);
+		} catch (IOException e) {
+			System.err.println("An error occurred writing the records.\n");
+			e.printStackTrace();
+			System.exit(1);
+		}
+	}
+	
+	/**
+	 * The {@code PlayerSpec} class holds the type and the engine parameters
+	 * of a player, to create a new instance of it for every game.
+	 */
+	private static class PlayerSpec {
+		
+		/** The specification as given on the command line. */
+		private final String spec;
+		
+		private final String type;
+		
+		private final Map<String, Long> params = new HashMap<>();
+		
+		/**
+		 * Parses a player specification.
+		 *
+		 * @param spec the type of the player optionally followed by its parameters.
+		 * @throws IllegalArgumentException if the specification is not valid.
+		 */
+		PlayerSpec(String spec) {
+			this.spec = spec;
+			int colon = spec.indexOf(':');
+			this.type = colon < 0 ? spec : spec.substring(0, colon);
+			if (!type.equals("random") && !type.equals("minmax") && !type.equals("alphabeta") && !type.equals("parallel")) {
+				throw new IllegalArgumentException("Unknown player type: " + type);
+			}
+			if (colon >= 0) {
+				for (String param : spec.substring(colon + 1).split(",")) {
+					int eq = param.indexOf('=');
+					if (eq < 0) throw new IllegalArgumentException("Invalid player parameter: " + param);
+					String key = param.substring(0, eq);
+					if (!key.equals("time") && !key.equals("deadline") && !key.equals("depth") && !key.equals("table")
+							&& !key.equals("threads") && !key.equals("nodes")) {
+						throw new IllegalArgumentException("Unknown player parameter: " + key);
+					}
+					params.put(key, (long) parsePositive(key, param.substring(eq + 1)));
+				}
+			}
+		}
+		
+		/**
+		 * Creates a new instance of the player.
+		 *
+		 * @param seed               the seed of its randomness, null for an unseeded player.
+		 * @param defaultTableSizeMb the size of its transposition table in MB, unless specified.
+		 * @return the new player.
+		 */
+		Player create(Long seed, int defaultTableSizeMb) {
+			int searchThreads = (int) get("threads", 1);
+			int tableSizeMb = (int) get("table", defaultTableSizeMb);
+			switch (type) {
+				case "random":
+					return seed == null ? new AIRandomPlayer() : new AIRandomPlayer(seed);
+				case "minmax":
+					AIMinMax minMax = seed == null ? new AIMinMax() : new AIMinMax(seed);
+					if (params.containsKey("nodes")) minMax.setNodeLimit((int) get("nodes", 0));
+					return minMax;
+				case "alphabeta":
+					AIAlphaBeta alphaBeta = seed == null ? new AIAlphaBeta(tableSizeMb, searchThreads)
+							: new AIAlphaBeta(tableSizeMb, searchThreads, seed);
+					alphaBeta.setTimeBudget(get("time", AIAlphaBeta.DEFAULT_TIME_BUDGET));
+					alphaBeta.setHardDeadline(get("deadline", AIAlphaBeta.DEFAULT_HARD_DEADLINE));
+					alphaBeta.setMaxSearchDepth((int) get("depth", AIAlphaBeta.MAX_SEARCH_DEPTH));
+					if (params.containsKey("nodes")) alphaBeta.setNodeLimit((int) get("nodes", 0));
+					return alphaBeta;
+				default:
+					AIParallelAlphaBeta parallel = new AIParallelAlphaBeta(tableSizeMb);
+					parallel.setParallelism(searchThreads);
+					parallel.setTimeBudget(get("time", AIAlphaBeta.DEFAULT_TIME_BUDGET));
+					parallel.setHardDeadline(get("deadline", AIAlphaBeta.DEFAULT_HARD_DEADLINE));
+					parallel.setMaxSearchDepth((int) get("depth", AIAlphaBeta.MAX_SEARCH_DEPTH));
+					if (params.containsKey("nodes")) parallel.setNodeLimit((int) get("nodes", 0));
+					return parallel;
+			}
+		}
+		
+		private long get(String key, long defaultValue) {
+			return params.getOrDefault(key, defaultValue);
+		}
+		
+		@Override
+		public String toString() {
+			return spec;
+		}
+	}
+}
@@ -139,7 +139,7 @@ public class CheckerBoard extends JButton {
 		
 		for (int y = 0; y < 8; y++) {
 			for (int x = (y + 1) % 2; x < 8; x += 2) {
-				if (showMovablePieces && isMovablePiece(x, y)) g.setColor(colorMovablePiece);
+				if (showMovablePieces && isMovablePiece(gameState, x, y)) g.setColor(colorMovablePiece);
 				else if (showNextTiles && containsMoveEndsIn(selectedPieceMoves, Board.toIndex(x, y)))
 					g.setColor(colorNextTiles);
 				else g.setColor(colorDarkTile);
@@ -293,11 +293,12 @@ public class CheckerBoard extends JButton {
 	
 	/**
 	 * Tell if a piece, in position (x,y) on the board, can be moved.
+	 * @param gameState the game state being drawn.
 	 * @param x the x position of the piece.
 	 * @param y the y position of the piece.
 	 * @return true if at least one move is currently available for piece in position (x,y); false otherwise.
 	 */
-	private boolean isMovablePiece(int x, int y) {
+	private boolean isMovablePiece(GameState gameState, int x, int y) {
 		return gameState.hasMove(new Point(x, y));
 	}
 	
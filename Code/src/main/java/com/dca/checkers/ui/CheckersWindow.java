@@ -173,7 +173,9 @@ public class CheckersWindow extends JFrame {
 	 */
 	public void startSimulation() throws InterruptedException {
 		System.out.println("Start of simulation.\n");
-		GameManager gMan = new GameManager(50, opts.getPlayer1(), opts.getPlayer2());
+		//Play a game on each core, with single threaded AIs
+		int threads = Runtime.getRuntime().availableProcessors();
+		GameManager gMan = new GameManager(50, opts.getPlayer1Factory(1), opts.getPlayer2Factory(1), threads, true);
 		gMan.start();
 		gMan.t.join();
 		System.out.println("End of simulation.\n");
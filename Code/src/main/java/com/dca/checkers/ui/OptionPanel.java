@@ -8,12 +8,14 @@ package com.dca.checkers.ui;
 
 import com.dca.checkers.ai.AIAlphaBeta;
 import com.dca.checkers.ai.AIMinMax;
+import com.dca.checkers.ai.AIParallelAlphaBeta;
 import com.dca.checkers.ai.AIRandomPlayer;
 import com.dca.checkers.model.HumanPlayer;
 import com.dca.checkers.model.Player;
 
 import javax.swing.*;
 import java.awt.*;
+import java.util.function.Supplier;
 
 /**
  * The {@code OptionPanel} class provides a user interface component to control
@@ -100,7 +102,7 @@ public class OptionPanel extends JPanel {
 		this.window = window;
 		
 		// Initialize the components
-		final String[] playerTypeOpts = {"Human", "AI - Random", "AI - MinMax", "AI - AlphaBeta"};
+		final String[] playerTypeOpts = {"Human", "AI - Random", "AI - MinMax", "AI - AlphaBeta", "AI - Parallel AlphaBeta"};
 		this.sliderDelay = new JSlider(JSlider.HORIZONTAL, 0, 2000, 1000);
 		this.labelDelayValue = new JLabel(sliderDelay.getValue() + "");
 		this.btnStart = new JButton("Start");
@@ -216,6 +218,26 @@ public class OptionPanel extends JPanel {
 		return getPlayer(cmbPlayer2Type);
 	}
 	
+	/**
+	 * Get a factory of the type of player selected for player 1, for simulations.
+	 * @param searchThreads the number of threads each AI searches on.
+	 * @return a factory of new player 1 objects.
+	 */
+	public Supplier<Player> getPlayer1Factory(int searchThreads) {
+		String type = "" + cmbPlayer1Type.getSelectedItem();
+		return () -> newPlayer(type, searchThreads);
+	}
+	
+	/**
+	 * Get a factory of the type of player selected for player 2, for simulations.
+	 * @param searchThreads the number of threads each AI searches on.
+	 * @return a factory of new player 2 objects.
+	 */
+	public Supplier<Player> getPlayer2Factory(int searchThreads) {
+		String type = "" + cmbPlayer2Type.getSelectedItem();
+		return () -> newPlayer(type, searchThreads);
+	}
+	
 	/**
 	 * Gets a new instance of the type of player selected for the specified
 	 * combo box.
@@ -226,13 +248,24 @@ public class OptionPanel extends JPanel {
 	 */
 	private Player getPlayer(JComboBox<String> playerOpts) {
 		
-		Player player = new HumanPlayer();
 		if (playerOpts == null) {
-			return player;
+			return new HumanPlayer();
 		}
+		return newPlayer("" + playerOpts.getSelectedItem(), Runtime.getRuntime().availableProcessors());
+	}
+	
+	/**
+	 * Gets a new instance of a type of player.
+	 *
+	 * @param type          the type of player, as in the player options.
+	 * @param searchThreads the number of threads an AI searches on.
+	 * @return a new instance of a {@link com.dca.checkers.model.Player} object of that type.
+	 */
+	private static Player newPlayer(String type, int searchThreads) {
+		
+		Player player = new HumanPlayer();
 		
 		// Determine the type
-		String type = "" + playerOpts.getSelectedItem();
 		if (type.equals("AI - Random")) {
 			player = new AIRandomPlayer();
 		}
@@ -240,7 +273,12 @@ public class OptionPanel extends JPanel {
 			player = new AIMinMax();
 		}
 		if (type.equals("AI - AlphaBeta")) {
-			player = new AIAlphaBeta();
+			player = new AIAlphaBeta(AIAlphaBeta.DEFAULT_TABLE_SIZE_MB, searchThreads);
+		}
+		if (type.equals("AI - Parallel AlphaBeta")) {
+			AIParallelAlphaBeta parallel = new AIParallelAlphaBeta();
+			parallel.setParallelism(searchThreads);
+			player = parallel;
 		}
 		return player;
 	}